@@ -0,0 +1,41 @@
+package com.example.demowithtests.benchmark;
+
+import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.domain.Gender;
+import com.example.demowithtests.dto.employee.EmployeeCreateDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmployeeCreateDto -> Employee, done once per POST /api/users.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+@State(Scope.Benchmark)
+public class EmployeeCreateMappingBenchmark {
+
+    @Param({"MAPSTRUCT", "ORIKA", "HAND_WRITTEN"})
+    private Mappers mapper;
+
+    private EmployeeMapping mapping;
+    private EmployeeCreateDto createDto;
+
+    @Setup
+    public void setUp() {
+        mapping = mapper.create();
+        createDto = new EmployeeCreateDto();
+        createDto.setName("Billy");
+        createDto.setCountry("England");
+        createDto.setEmail("billys@mail.com");
+        createDto.setGender(Gender.M);
+    }
+
+    @Benchmark
+    public Employee employeeCreateDtoToEmployee() {
+        return mapping.employeeCreateDtoToEmployee(createDto);
+    }
+}
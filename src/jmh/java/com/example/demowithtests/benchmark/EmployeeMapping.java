@@ -0,0 +1,16 @@
+package com.example.demowithtests.benchmark;
+
+import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.dto.employee.EmployeeCreateDto;
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+
+/**
+ * The two conversions of {@link com.example.demowithtests.util.config.EmployeeMapper}, so that
+ * every mapping library can be measured through the same calls.
+ */
+public interface EmployeeMapping {
+
+    EmployeeReadDto employeeToEmployeeReadDTO(Employee employee);
+
+    Employee employeeCreateDtoToEmployee(EmployeeCreateDto employeeCreateDto);
+}
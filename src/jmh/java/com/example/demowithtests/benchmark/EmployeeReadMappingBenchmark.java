@@ -0,0 +1,63 @@
+package com.example.demowithtests.benchmark;
+
+import com.example.demowithtests.domain.Address;
+import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.domain.Gender;
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Employee -> EmployeeReadDto, the conversion done for every row of every list endpoint.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// orika generates its mappers with javassist
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+@State(Scope.Benchmark)
+public class EmployeeReadMappingBenchmark {
+
+    @Param({"MAPSTRUCT", "ORIKA", "HAND_WRITTEN"})
+    private Mappers mapper;
+
+    @Param({"0", "1", "10"})
+    private int addresses;
+
+    private EmployeeMapping mapping;
+    private Employee employee;
+
+    @Setup
+    public void setUp() {
+        mapping = mapper.create();
+        Set<Address> employeeAddresses = new HashSet<>();
+        for (long i = 0; i < addresses; i++) {
+            Address address = new Address();
+            address.setId(i);
+            address.setCountry("Ukraine");
+            address.setCity("Kyiv");
+            address.setStreet("Khreshchatyk " + i);
+            employeeAddresses.add(address);
+        }
+        employee = Employee.builder()
+                .id(1)
+                .name("Billy")
+                .country("England")
+                .email("billys@mail.com")
+                .gender(Gender.M)
+                .addresses(employeeAddresses)
+                .isDeleted(Boolean.FALSE)
+                .isPrivate(Boolean.FALSE)
+                .isConfirmed(Boolean.TRUE)
+                .build();
+    }
+
+    @Benchmark
+    public EmployeeReadDto employeeToEmployeeReadDTO() {
+        return mapping.employeeToEmployeeReadDTO(employee);
+    }
+}
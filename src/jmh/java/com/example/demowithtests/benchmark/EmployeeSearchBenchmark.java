@@ -0,0 +1,89 @@
+package com.example.demowithtests.benchmark;
+
+import com.example.demowithtests.util.search.TrigramIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Substring search over name, email and country: {@code LIKE '%query%'} on an in-memory H2 table against
+ * the {@link TrigramIndex} behind /api/users/search. Both return all matching ids.
+ * <p>
+ * {@code mvn -P jmh test-compile exec:exec -Djmh.includes=EmployeeSearchBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class EmployeeSearchBenchmark {
+    private static final int ALL_FIELDS = 7;
+
+    @Param({"1000000"})
+    private int rows;
+
+    // selective name, a domain shared by 2% of the rows, a country of a quarter of the rows
+    @Param({"name123456", "mail7.com", "ukr"})
+    private String query;
+
+    private Connection connection;
+    private PreparedStatement like;
+    private TrigramIndex index;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:search;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists users");
+            statement.execute("create table users (id int primary key, name varchar, email varchar, country varchar)");
+            statement.execute("insert into users select x, 'Name' || x, 'user' || x || '@mail' || mod(x, 50) || '.com', " +
+                    "casewhen(mod(x, 4) = 0, 'Ukraine', casewhen(mod(x, 4) = 1, 'Poland', " +
+                    "casewhen(mod(x, 4) = 2, 'Germany', 'France'))) from system_range(1, " + rows + ")");
+        }
+        index = new TrigramIndex(4, 2, 1);
+        try (Statement statement = connection.createStatement();
+             ResultSet all = statement.executeQuery("select id, name, email, country from users")) {
+            while (all.next()) {
+                index.put(all.getInt(1), all.getString(2), all.getString(3), all.getString(4));
+            }
+        }
+        like = connection.prepareStatement("select id from users " +
+                "where lower(name) like ? or lower(email) like ? or lower(country) like ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        like.close();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table users");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Integer> likeQuery() throws SQLException {
+        String pattern = "%" + query + "%";
+        like.setString(1, pattern);
+        like.setString(2, pattern);
+        like.setString(3, pattern);
+        List<Integer> ids = new ArrayList<>();
+        try (ResultSet result = like.executeQuery()) {
+            while (result.next()) ids.add(result.getInt(1));
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public List<TrigramIndex.Hit> trigramIndex() {
+        return index.search(query, ALL_FIELDS);
+    }
+}
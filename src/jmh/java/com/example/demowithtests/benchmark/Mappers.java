@@ -0,0 +1,110 @@
+package com.example.demowithtests.benchmark;
+
+import com.example.demowithtests.domain.Address;
+import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.dto.address.AddressReadDto;
+import com.example.demowithtests.dto.employee.EmployeeCreateDto;
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.util.config.EmployeeMapper;
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Mapping implementations under comparison.
+ */
+public enum Mappers {
+    MAPSTRUCT {
+        @Override
+        EmployeeMapping create() {
+            EmployeeMapper mapper = EmployeeMapper.INSTANCE;
+            return new EmployeeMapping() {
+                @Override
+                public EmployeeReadDto employeeToEmployeeReadDTO(Employee employee) {
+                    return mapper.employeeToEmployeeReadDTO(employee);
+                }
+
+                @Override
+                public Employee employeeCreateDtoToEmployee(EmployeeCreateDto employeeCreateDto) {
+                    return mapper.employeeCreateDtoToEmployee(employeeCreateDto);
+                }
+            };
+        }
+    },
+    ORIKA {
+        @Override
+        EmployeeMapping create() {
+            DefaultMapperFactory factory = new DefaultMapperFactory.Builder().build();
+            factory.classMap(Employee.class, EmployeeReadDto.class).byDefault().register();
+            factory.classMap(Address.class, AddressReadDto.class).byDefault().register();
+            factory.classMap(EmployeeCreateDto.class, Employee.class).byDefault().register();
+            MapperFacade facade = factory.getMapperFacade();
+            return new EmployeeMapping() {
+                @Override
+                public EmployeeReadDto employeeToEmployeeReadDTO(Employee employee) {
+                    return facade.map(employee, EmployeeReadDto.class);
+                }
+
+                @Override
+                public Employee employeeCreateDtoToEmployee(EmployeeCreateDto employeeCreateDto) {
+                    return facade.map(employeeCreateDto, Employee.class);
+                }
+            };
+        }
+    },
+    HAND_WRITTEN {
+        @Override
+        EmployeeMapping create() {
+            return new HandWrittenEmployeeMapping();
+        }
+    };
+
+    abstract EmployeeMapping create();
+
+    // Plain Java equivalent of the generated EmployeeMapperImpl
+    static class HandWrittenEmployeeMapping implements EmployeeMapping {
+
+        @Override
+        public EmployeeReadDto employeeToEmployeeReadDTO(Employee employee) {
+            if (employee == null) return null;
+            EmployeeReadDto dto = new EmployeeReadDto();
+            dto.setId(employee.getId());
+            dto.setName(employee.getName());
+            dto.setCountry(employee.getCountry());
+            dto.setEmail(employee.getEmail());
+            dto.setGender(employee.getGender());
+            dto.setIsDeleted(employee.getIsDeleted());
+            dto.setIsPrivate(employee.getIsPrivate());
+            dto.setIsConfirmed(employee.getIsConfirmed());
+            Set<Address> addresses = employee.getAddresses();
+            if (addresses != null) {
+                Set<AddressReadDto> addressDtos = new HashSet<>(Math.max((int) (addresses.size() / .75f) + 1, 16));
+                for (Address address : addresses) {
+                    AddressReadDto addressDto = new AddressReadDto();
+                    addressDto.setId(address.getId());
+                    addressDto.setAddressHasActive(address.getAddressHasActive());
+                    addressDto.setCountry(address.getCountry());
+                    addressDto.setCity(address.getCity());
+                    addressDto.setStreet(address.getStreet());
+                    addressDtos.add(addressDto);
+                }
+                dto.setAddresses(addressDtos);
+            }
+            return dto;
+        }
+
+        @Override
+        public Employee employeeCreateDtoToEmployee(EmployeeCreateDto employeeCreateDto) {
+            if (employeeCreateDto == null) return null;
+            return Employee.builder()
+                    .id(employeeCreateDto.getId())
+                    .name(employeeCreateDto.getName())
+                    .country(employeeCreateDto.getCountry())
+                    .email(employeeCreateDto.getEmail())
+                    .gender(employeeCreateDto.getGender())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demowithtests.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives one scenario in the closed or the open model.
+ */
+class LoadRunner {
+    private final HttpClient client;
+    private final LoadTestOptions options;
+    private final String authorization;
+
+    LoadRunner(HttpClient client, LoadTestOptions options, String authorization) {
+        this.client = client;
+        this.options = options;
+        this.authorization = authorization;
+    }
+
+    ScenarioResult run(Scenario scenario) throws InterruptedException {
+        ScenarioResult result = new ScenarioResult(scenario.name);
+        long warmupEnd = System.nanoTime() + options.warmup.toNanos();
+        long end = warmupEnd + options.duration.toNanos();
+        Runnable afterWarmup = result::reset;
+        if (options.mode == LoadTestOptions.Mode.CLOSED) {
+            runClosed(scenario, result, warmupEnd, end, afterWarmup);
+        } else {
+            runOpen(scenario, result, warmupEnd, end, afterWarmup);
+        }
+        result.finish(options.duration.toNanos());
+        return result;
+    }
+
+    // every user waits for its response, so latency is measured from the moment the request is sent
+    private void runClosed(Scenario scenario, ScenarioResult result, long warmupEnd, long end, Runnable afterWarmup)
+            throws InterruptedException {
+        ExecutorService users = Executors.newFixedThreadPool(options.concurrency);
+        List<Runnable> loops = new ArrayList<>();
+        for (int i = 0; i < options.concurrency; i++) {
+            loops.add(() -> {
+                while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                    HttpRequest request = scenario.request(options.baseUrl, options.maxId, authorization);
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        result.recordResponse(response.statusCode(), System.nanoTime() - start);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Exception e) {
+                        result.recordFailure(e, System.nanoTime() - start);
+                    }
+                }
+            });
+        }
+        loops.forEach(users::execute);
+        sleepUntil(warmupEnd);
+        afterWarmup.run();
+        users.shutdown();
+        if (!users.awaitTermination(end - System.nanoTime() + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS)) {
+            users.shutdownNow();
+        }
+    }
+
+    // requests are scheduled at a fixed rate; latency counts from the scheduled time,
+    // so a stalled server is not hidden by requests that were never sent (coordinated omission)
+    private void runOpen(Scenario scenario, ScenarioResult result, long warmupEnd, long end, Runnable afterWarmup)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(options.maxInFlight);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        boolean warm = false;
+        for (long intended = System.nanoTime(); intended < end; intended += intervalNanos) {
+            sleepUntil(intended);
+            if (!warm && intended >= warmupEnd) {
+                afterWarmup.run();
+                warm = true;
+            }
+            if (!inFlight.tryAcquire()) {
+                result.recordDropped();
+                continue;
+            }
+            long scheduledAt = intended;
+            client.sendAsync(scenario.request(options.baseUrl, options.maxId, authorization),
+                            HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long latency = System.nanoTime() - scheduledAt;
+                        if (failure != null) result.recordFailure(failure.getCause() != null ? failure.getCause() : failure, latency);
+                        else result.recordResponse(response.statusCode(), latency);
+                        inFlight.release();
+                    });
+        }
+        // let the requests of the last seconds complete
+        inFlight.tryAcquire(options.maxInFlight, 1, TimeUnit.MINUTES);
+    }
+
+    private static void sleepUntil(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+    }
+}
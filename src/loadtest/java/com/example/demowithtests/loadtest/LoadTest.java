@@ -0,0 +1,99 @@
+package com.example.demowithtests.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Load generator for the REST API, replaces the old HttpRequestSender.
+ * <p>
+ * Start the application on H2 with {@code mvn spring-boot:run -Dspring-boot.run.profiles=h2}, then
+ * <pre>
+ * mvn -Ploadtest test-compile exec:java -Dexec.args="--scenarios=get-by-id,get-page --mode=open --rate=500"
+ * </pre>
+ * Options: base-url, user, password, scenarios (comma separated or "all"), mode (closed|open),
+ * concurrency, rate, max-in-flight, warmup and duration in seconds, max-id, out.
+ * Every scenario writes its HDR percentile distribution next to the summary in {@code out}.
+ */
+public class LoadTest {
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        List<Scenario> scenarios = Scenarios.select(options.scenarios);
+        String authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((options.user + ":" + options.password).getBytes(StandardCharsets.UTF_8));
+
+        ExecutorService clientExecutor = Executors.newCachedThreadPool();
+        // HTTP/1.1 connections are kept alive and reused by the client's pool
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(clientExecutor)
+                .build();
+        LoadRunner runner = new LoadRunner(client, options, authorization);
+
+        System.out.println(options);
+        printHeader(System.out);
+        List<ScenarioResult> results = new ArrayList<>();
+        try {
+            for (Scenario scenario : scenarios) {
+                ScenarioResult result = runner.run(scenario);
+                results.add(result);
+                printRow(System.out, result);
+            }
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+
+        Path summary = writeSummary(options, results);
+        System.out.println("Summary written to " + summary.toAbsolutePath());
+    }
+
+    private static Path writeSummary(LoadTestOptions options, List<ScenarioResult> results) throws IOException {
+        Path dir = Files.createDirectories(options.out);
+        String runId = LocalDateTime.now().format(RUN_ID);
+        Path summary = dir.resolve("summary-" + runId + ".txt");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(summary), true, StandardCharsets.UTF_8)) {
+            out.println(options);
+            printHeader(out);
+            for (ScenarioResult result : results) {
+                printRow(out, result);
+            }
+        }
+        for (ScenarioResult result : results) {
+            writeDistribution(dir.resolve(result.name + "-" + runId + ".hgrm"), result);
+        }
+        return summary;
+    }
+
+    private static void writeDistribution(Path file, ScenarioResult result) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, StandardCharsets.UTF_8)) {
+            // values are recorded in ns, the distribution is printed in ms
+            result.histogram().outputPercentileDistribution(out, 1e6);
+        }
+    }
+
+    private static void printHeader(PrintStream out) {
+        out.printf("%-26s %9s %9s %9s %9s %9s %9s %7s  %s%n",
+                "scenario", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors", "outcomes");
+    }
+
+    private static void printRow(PrintStream out, ScenarioResult result) {
+        out.printf("%-26s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7d  %s%n",
+                result.name, result.requests(), result.throughput(),
+                result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(99.9),
+                result.maxMillis(), result.errors(), result.outcomes());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demowithtests.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line of {@link LoadTest}, every option is {@code --name=value}.
+ */
+class LoadTestOptions {
+    enum Mode {
+        // a fixed number of users, each sends the next request when the previous one is answered
+        CLOSED,
+        // requests arrive at a fixed rate whether or not the server keeps up
+        OPEN
+    }
+
+    final String baseUrl;
+    final String user;
+    final String password;
+    final List<String> scenarios;
+    final Mode mode;
+    final int concurrency;
+    final int rate;
+    final int maxInFlight;
+    final Duration warmup;
+    final Duration duration;
+    final int maxId;
+    final Path out;
+
+    private LoadTestOptions(Map<String, String> options) {
+        baseUrl = options.getOrDefault("base-url", "http://localhost:8087/api");
+        user = options.getOrDefault("user", "admin");
+        password = options.getOrDefault("password", "password");
+        scenarios = Arrays.asList(options.getOrDefault("scenarios", "all").split(","));
+        mode = Mode.valueOf(options.getOrDefault("mode", "closed").toUpperCase());
+        concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "1000"));
+        warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5")));
+        duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        maxId = Integer.parseInt(options.getOrDefault("max-id", "1000"));
+        out = Paths.get(options.getOrDefault("out", "target/loadtest"));
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return new LoadTestOptions(options);
+    }
+
+    @Override
+    public String toString() {
+        return "baseUrl=" + baseUrl + ", scenarios=" + scenarios + ", mode=" + mode
+                + (mode == Mode.CLOSED ? ", concurrency=" + concurrency : ", rate=" + rate + "/s, maxInFlight=" + maxInFlight)
+                + ", warmup=" + warmup.getSeconds() + "s, duration=" + duration.getSeconds() + "s, maxId=" + maxId;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demowithtests.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One endpoint of the Controller under load.
+ */
+class Scenario {
+    interface RequestFactory {
+        HttpRequest.Builder create(String baseUrl, int maxId, ThreadLocalRandom random);
+    }
+
+    final String name;
+    // changes data, only run when named explicitly
+    final boolean writes;
+    private final RequestFactory requestFactory;
+
+    Scenario(String name, boolean writes, RequestFactory requestFactory) {
+        this.name = name;
+        this.writes = writes;
+        this.requestFactory = requestFactory;
+    }
+
+    HttpRequest request(String baseUrl, int maxId, String authorization) {
+        return requestFactory.create(baseUrl, maxId, ThreadLocalRandom.current())
+                .header("Authorization", authorization)
+                .build();
+    }
+
+    static HttpRequest.Builder get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET();
+    }
+
+    static HttpRequest.Builder json(String method, String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    static HttpRequest.Builder noBody(String method, String url) {
+        return HttpRequest.newBuilder(URI.create(url)).method(method, HttpRequest.BodyPublishers.noBody());
+    }
+}
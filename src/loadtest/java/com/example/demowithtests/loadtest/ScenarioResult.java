@@ -0,0 +1,92 @@
+package com.example.demowithtests.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one scenario. Safe to record from many threads.
+ */
+class ScenarioResult {
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    final String name;
+    private final Recorder recorder = new Recorder(MAX_LATENCY_NANOS, 3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    // open model only: requests not sent because max-in-flight was reached
+    private final LongAdder dropped = new LongAdder();
+    private Histogram histogram;
+    private long elapsedNanos;
+
+    ScenarioResult(String name) {
+        this.name = name;
+    }
+
+    void recordResponse(int status, long latencyNanos) {
+        recorder.recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    void recordFailure(Throwable failure, long latencyNanos) {
+        recorder.recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+        failures.computeIfAbsent(failure.getClass().getSimpleName(), key -> new LongAdder()).increment();
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * Drops everything recorded during the warmup.
+     */
+    void reset() {
+        recorder.reset();
+        statuses.clear();
+        failures.clear();
+        dropped.reset();
+    }
+
+    void finish(long elapsedNanos) {
+        this.histogram = recorder.getIntervalHistogram();
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    Histogram histogram() {
+        return histogram;
+    }
+
+    long requests() {
+        return histogram.getTotalCount();
+    }
+
+    double throughput() {
+        return requests() * 1e9 / Math.max(elapsedNanos, 1);
+    }
+
+    double percentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    double maxMillis() {
+        return histogram.getMaxValue() / 1e6;
+    }
+
+    long errors() {
+        return statuses.entrySet().stream().filter(e -> e.getKey() >= 400).mapToLong(e -> e.getValue().sum()).sum()
+                + failures.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    Map<String, Long> outcomes() {
+        Map<String, Long> outcomes = new TreeMap<>();
+        statuses.forEach((status, count) -> outcomes.put(String.valueOf(status), count.sum()));
+        failures.forEach((failure, count) -> outcomes.put(failure, count.sum()));
+        if (dropped.sum() > 0) outcomes.put("dropped", dropped.sum());
+        return outcomes;
+    }
+}
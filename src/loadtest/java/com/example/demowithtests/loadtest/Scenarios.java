@@ -0,0 +1,89 @@
+package com.example.demowithtests.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static com.example.demowithtests.loadtest.Scenario.get;
+import static com.example.demowithtests.loadtest.Scenario.json;
+import static com.example.demowithtests.loadtest.Scenario.noBody;
+
+/**
+ * Scenarios for the endpoints of {@link com.example.demowithtests.web.Controller}.
+ */
+final class Scenarios {
+    private static final String[] COUNTRIES = {"Ukraine", "Poland", "England", "Germany", "France"};
+
+    static final List<Scenario> ALL = Arrays.asList(
+            new Scenario("create", true, (url, maxId, random) -> json("POST", url + "/users",
+                    "{\"name\":\"Load" + random.nextInt(1_000_000) + "\",\"country\":\"" + country(random)
+                            + "\",\"email\":\"load" + random.nextInt(1_000_000) + "@mail.com\",\"gender\":\"M\"}")),
+            new Scenario("get-all", false, (url, maxId, random) -> get(url + "/users")),
+            new Scenario("stream-all", false, (url, maxId, random) -> get(url + "/users")
+                    .header("Accept", "application/x-ndjson")),
+            new Scenario("get-page", false, (url, maxId, random) ->
+                    get(url + "/users/p?page=" + random.nextInt(Math.max(maxId / 20, 1)) + "&size=20")),
+            new Scenario("seek", false, (url, maxId, random) -> get(url + "/users/p/seek?size=20")),
+            new Scenario("get-by-id", false, (url, maxId, random) -> get(url + "/users/" + id(maxId, random))),
+            new Scenario("cache-stats", false, (url, maxId, random) -> get(url + "/users/cache/stats")),
+            new Scenario("put", true, (url, maxId, random) -> json("PUT", url + "/users/" + id(maxId, random),
+                    "{\"name\":\"Put" + random.nextInt(1_000_000) + "\",\"country\":\"" + country(random) + "\"}")),
+            new Scenario("remove", true, (url, maxId, random) -> noBody("PATCH", url + "/users/" + id(maxId, random))),
+            new Scenario("remove-all", true, (url, maxId, random) -> noBody("DELETE", url + "/users")),
+            new Scenario("by-country", false, (url, maxId, random) ->
+                    get(url + "/users/country?country=" + country(random) + "&page=0&size=20")),
+            new Scenario("countries", false, (url, maxId, random) -> get(url + "/users/c")),
+            new Scenario("countries-by-prefix", false, (url, maxId, random) -> get(url + "/users/s?prefix=U")),
+            new Scenario("country-counts", false, (url, maxId, random) -> get(url + "/users/c/counts")),
+            new Scenario("emails", false, (url, maxId, random) -> get(url + "/users/emails?suffix=.com")),
+            new Scenario("email-domain", false, (url, maxId, random) -> get(url + "/users/emails/domain/mail.com")),
+            new Scenario("email-domain-count", false, (url, maxId, random) ->
+                    get(url + "/users/emails/domain/mail.com/count")),
+            new Scenario("by-gender-and-country", false, (url, maxId, random) ->
+                    get(url + "/users/byGenderAndCountry?gender=M&country=" + country(random))),
+            new Scenario("has-active-address", false, (url, maxId, random) ->
+                    get(url + "/users/has-active-address?country=" + country(random) + "&page=0&size=20")),
+            new Scenario("has-active-address-seek", false, (url, maxId, random) ->
+                    get(url + "/users/has-active-address/seek?country=" + country(random) + "&size=20")),
+            new Scenario("proc-is-deleted", true, (url, maxId, random) -> get(url + "/users/proc-is-deleted")),
+            new Scenario("proc-is-private", true, (url, maxId, random) -> get(url + "/users/proc-is-private")),
+            new Scenario("active", false, (url, maxId, random) -> get(url + "/users/active?page=0&size=20")),
+            new Scenario("deleted", false, (url, maxId, random) -> get(url + "/users/deleted?page=0&size=20")),
+            new Scenario("active-seek", false, (url, maxId, random) -> get(url + "/users/active/seek?size=20")),
+            new Scenario("deleted-seek", false, (url, maxId, random) -> get(url + "/users/deleted/seek?size=20")),
+            new Scenario("send-confirm", true, (url, maxId, random) -> get(url + "/users/" + id(maxId, random) + "/confirm")),
+            new Scenario("confirm", true, (url, maxId, random) -> get(url + "/users/" + id(maxId, random) + "/confirmed")),
+            new Scenario("generate", true, (url, maxId, random) -> noBody("POST", url + "/users/generate/100")),
+            new Scenario("mass-update-put", true, (url, maxId, random) ->
+                    noBody("PUT", url + "/users/mass-test-update?chunkSize=1000&parallelism=2")),
+            new Scenario("mass-update-patch", true, (url, maxId, random) ->
+                    noBody("PATCH", url + "/users/mass-test-update?chunkSize=1000&parallelism=2")),
+            new Scenario("mass-update-stats", false, (url, maxId, random) ->
+                    get(url + "/users/mass-test-update/stats"))
+    );
+
+    private Scenarios() {
+    }
+
+    /**
+     * @param names scenario names, "all" selects every scenario that only reads
+     */
+    static List<Scenario> select(List<String> names) {
+        if (names.size() == 1 && "all".equals(names.get(0))) {
+            return ALL.stream().filter(scenario -> !scenario.writes).collect(Collectors.toList());
+        }
+        return names.stream()
+                .map(name -> ALL.stream().filter(scenario -> scenario.name.equals(name)).findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown scenario " + name)))
+                .collect(Collectors.toList());
+    }
+
+    private static int id(int maxId, ThreadLocalRandom random) {
+        return random.nextInt(maxId) + 1;
+    }
+
+    private static String country(ThreadLocalRandom random) {
+        return COUNTRIES[random.nextInt(COUNTRIES.length)];
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demowithtests.domain;
+
+import lombok.Data;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "addresses_archive")
+@Immutable
+@Data
+public class ArchivedAddress {
+    @Id
+    private Long id;
+    @Column(name = "address_has_active")
+    private Boolean addressHasActive;
+    private String country;
+    private String city;
+    private String street;
+}
@@ -0,0 +1,42 @@
+package com.example.demowithtests.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Soft-deleted employee moved out of {@code users} after the retention period, see
+ * {@link com.example.demowithtests.service.archive.EmployeeArchiveService}. Written only by native insert-selects.
+ */
+@Entity
+@Table(name = "users_archive")
+@Immutable
+@Data
+public class ArchivedEmployee {
+    @Id
+    private Integer id;
+    private String name;
+    private String country;
+    private String email;
+    @Enumerated(EnumType.STRING)
+    private Gender gender;
+    private Boolean isPrivate;
+    private Boolean isConfirmed;
+    @JsonIgnore
+    private String emailDomain;
+    @JsonIgnore
+    private String emailDomainReversed;
+    private LocalDateTime deletedAt;
+    private LocalDateTime archivedAt;
+    private Long version;
+    @OneToMany
+    @JoinColumn(name = "employee_id")
+    @BatchSize(size = 100)
+    private Set<ArchivedAddress> addresses = new HashSet<>();
+}
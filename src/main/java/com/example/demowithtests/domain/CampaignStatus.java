@@ -0,0 +1,3 @@
+package com.example.demowithtests.domain;
+
+public enum CampaignStatus {CREATED, RUNNING, INCOMPLETE, COMPLETED}
@@ -1,35 +1,92 @@
 package com.example.demowithtests.domain;
 
+import com.example.demowithtests.util.event.EmployeeEntityListener;
+import com.example.demowithtests.util.event.EmployeeState;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "users")
+// publishes every persisted change, see EmployeeChangeCollector
+@EntityListeners(EmployeeEntityListener.class)
+// UPDATE statements only list the columns that changed
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Employee {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Integer id;
+    // never null, keyset seeks would skip the row
+    @Column(nullable = false)
     private String name;
     private String country;
     private String email;
     @OneToMany(cascade = CascadeType.ALL)
     @JoinColumn(name = "employee_id")
+    // addresses of up to 100 loaded employees are fetched with one select instead of one select per employee
+    @BatchSize(size = 100)
     private Set<Address> addresses = new HashSet<>();
     @Enumerated(EnumType.STRING)
     private Gender gender;
     private Boolean isDeleted = Boolean.FALSE;
     private Boolean isPrivate = Boolean.FALSE;
+    // set together with isDeleted, the archiver moves the row out of users after the retention period
+    private LocalDateTime deletedAt;
 
     //    Не бизнесовое поле: после заполнении данных о работнике, письмо с подверждением  данных
     //    отправляется на указанный email. Пока работник их не подтвердит, его учетная запись будет неактивна в системе
     //    (хз чего, может быть какого-нибудь завода)
     private Boolean isConfirmed = Boolean.FALSE;
 
+    // bumped by every update, bulk JPQL updates have to bump it themselves
+    @Version
+    private Long version;
+
+    // Derived from email so that domain and suffix lookups can use an index, see updateEmailDomain()
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private String emailDomain;
+    // Reversed domain: a suffix match like '.com' becomes an indexable prefix match 'moc.%'
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private String emailDomainReversed;
+    // state read from the database, kept by EmployeeEntityListener
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private EmployeeState loadedState;
+
+    @PrePersist
+    @PreUpdate
+    void updateEmailDomain() {
+        emailDomain = domainOf(email);
+        emailDomainReversed = reversed(emailDomain);
+    }
+
+    public EmployeeState getLoadedState() {
+        return loadedState;
+    }
+
+    public static String reversed(String domain) {
+        return domain == null ? null : new StringBuilder(domain).reverse().toString();
+    }
+
+    public static String domainOf(String email) {
+        if (email == null) return null;
+        int at = email.lastIndexOf('@');
+        return at < 0 || at == email.length() - 1 ? null : email.substring(at + 1).toLowerCase();
+    }
 }
@@ -0,0 +1,33 @@
+package com.example.demowithtests.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Confirmation mails for all unconfirmed employees. {@code lastEmployeeId} is committed together
+ * with every enqueued page, so a restarted campaign continues where it stopped.
+ */
+@Entity
+@Table(name = "mail_campaign")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MailCampaign {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mail_campaign_id_seq")
+    @SequenceGenerator(name = "mail_campaign_id_seq", sequenceName = "mail_campaign_id_seq", allocationSize = 1)
+    private Long id;
+    @Enumerated(EnumType.STRING)
+    private CampaignStatus status;
+    private int ratePerSecond;
+    private int parallelism;
+    private Integer lastEmployeeId;
+    private boolean enqueueFinished;
+    private long enqueued;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,6 @@
+package com.example.demowithtests.domain;
+
+/**
+ * SENDING marks a mail handed to the SMTP server but not recorded as sent yet.
+ */
+public enum MailStatus {PENDING, SENDING, SENT, FAILED}
@@ -0,0 +1,40 @@
+package com.example.demowithtests.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Mail waiting in the outbox. Written in the transaction of the request that wants it sent,
+ * delivered later by {@link com.example.demowithtests.util.mail.MailOutboxDispatcher}, or by the
+ * {@link com.example.demowithtests.service.mail.MailCampaignService} when it belongs to a campaign.
+ */
+@Entity
+@Table(name = "mail_outbox",
+        uniqueConstraints = @UniqueConstraint(name = "mail_outbox_campaign_employee_uq",
+                columnNames = {"campaignId", "employeeId"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMail {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mail_outbox_id_seq")
+    @SequenceGenerator(name = "mail_outbox_id_seq", sequenceName = "mail_outbox_id_seq", allocationSize = 50)
+    private Long id;
+    private Long campaignId;
+    private Integer employeeId;
+    private String recipient;
+    private String subject;
+    @Column(length = 4000)
+    private String body;
+    @Enumerated(EnumType.STRING)
+    private MailStatus status;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    @Column(length = 1024)
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+}
@@ -1,5 +1,6 @@
 package com.example.demowithtests.dto.address;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -11,5 +12,7 @@ public class AddressReadDto {
     private String country;
     private String city;
     private String street;
+    // the time of mapping, see EmployeeReadDto#datetime
+    @JsonIgnore
     private LocalDateTime datetime = LocalDateTime.now();
 }
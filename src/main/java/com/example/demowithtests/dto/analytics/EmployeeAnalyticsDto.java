@@ -0,0 +1,18 @@
+package com.example.demowithtests.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeAnalyticsDto {
+    // employees matching the filter
+    private long employees;
+    private List<EmployeeGroupCountDto> groups = new ArrayList<>();
+    private long tookMicros;
+}
@@ -0,0 +1,21 @@
+package com.example.demowithtests.dto.analytics;
+
+import com.example.demowithtests.domain.Gender;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The columns of users kept by the analytics snapshot.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeAttributesDto {
+    private Integer id;
+    private String country;
+    private Gender gender;
+    private Boolean isDeleted;
+    private Boolean isPrivate;
+    private Boolean isConfirmed;
+}
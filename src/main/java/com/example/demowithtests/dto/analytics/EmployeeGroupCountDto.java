@@ -0,0 +1,18 @@
+package com.example.demowithtests.dto.analytics;
+
+import com.example.demowithtests.domain.Gender;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Null country or gender means the dimension is not grouped by, or the value is not set.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeGroupCountDto {
+    private String country;
+    private Gender gender;
+    private long employees;
+}
@@ -0,0 +1,21 @@
+package com.example.demowithtests.dto.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationReportDto {
+    private long rows;
+    private long batches;
+    private long durationMs;
+    private double rowsPerSecond;
+
+    public static BulkOperationReportDto of(long rows, long batches, long startNanos) {
+        long durationNanos = Math.max(System.nanoTime() - startNanos, 1);
+        return new BulkOperationReportDto(rows, batches, durationNanos / 1_000_000,
+                rows * 1_000_000_000d / durationNanos);
+    }
+}
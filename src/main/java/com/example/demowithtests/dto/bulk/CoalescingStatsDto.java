@@ -0,0 +1,15 @@
+package com.example.demowithtests.dto.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoalescingStatsDto {
+    // runs of the operation
+    private long executions;
+    // requests served by the run of another request
+    private long coalesced;
+}
@@ -0,0 +1,16 @@
+package com.example.demowithtests.dto.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDto {
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long evictions;
+    private long size;
+}
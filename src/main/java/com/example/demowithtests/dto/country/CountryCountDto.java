@@ -0,0 +1,13 @@
+package com.example.demowithtests.dto.country;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CountryCountDto {
+    private String country;
+    private long employees;
+}
@@ -0,0 +1,23 @@
+package com.example.demowithtests.dto.employee;
+
+import com.example.demowithtests.domain.Gender;
+import com.example.demowithtests.dto.address.AddressReadDto;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+public class ArchivedEmployeeReadDto {
+    private Integer id;
+    private String name;
+    private String country;
+    private String email;
+    private Gender gender;
+    private Set<AddressReadDto> addresses = new HashSet<>();
+    private Boolean isPrivate;
+    private Boolean isConfirmed;
+    private LocalDateTime deletedAt;
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,30 @@
+package com.example.demowithtests.dto.employee;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of one element of a POST /api/users/batch body: the new id or why the element was rejected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmployeeBatchResultDto {
+    // position of the element in the request body, starting at 0
+    private long index;
+    private Integer id;
+    private List<String> errors;
+
+    public static EmployeeBatchResultDto created(long index, Integer id) {
+        return new EmployeeBatchResultDto(index, id, null);
+    }
+
+    public static EmployeeBatchResultDto rejected(long index, List<String> errors) {
+        return new EmployeeBatchResultDto(index, null, errors);
+    }
+}
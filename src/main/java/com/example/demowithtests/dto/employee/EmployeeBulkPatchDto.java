@@ -0,0 +1,17 @@
+package com.example.demowithtests.dto.employee;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@Data
+public class EmployeeBulkPatchDto {
+    @NotEmpty
+    private List<Integer> ids;
+    @Valid
+    @NotNull
+    private EmployeePatchDto patch;
+}
@@ -2,6 +2,7 @@ package com.example.demowithtests.dto.employee;
 
 import com.example.demowithtests.domain.Gender;
 import com.example.demowithtests.dto.address.AddressReadDto;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 
@@ -34,6 +35,8 @@ public class EmployeeReadDto {
 
     private Set<AddressReadDto> addresses = new HashSet<>();
 
+    // the time of mapping, not of the employee; left out of the body, which is tagged strongly by the version
+    @JsonIgnore
     private LocalDateTime datetime = LocalDateTime.now();
 
     // почему у нас поля паблик? Разве это не нарушение инкапсуляции?
@@ -44,4 +47,7 @@ public class EmployeeReadDto {
     private Boolean isPrivate;
     private Boolean isConfirmed;
 
+    // also sent as the ETag of GET /api/users/{id}, see Controller#getEmployeeById
+    private Long version;
+
 }
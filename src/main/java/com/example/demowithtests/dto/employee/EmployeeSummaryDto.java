@@ -0,0 +1,20 @@
+package com.example.demowithtests.dto.employee;
+
+import com.example.demowithtests.domain.Gender;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Employee without addresses, filled directly by a constructor expression in the query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSummaryDto {
+    private Integer id;
+    private String name;
+    private String email;
+    private String country;
+    private Gender gender;
+}
@@ -0,0 +1,24 @@
+package com.example.demowithtests.dto.job;
+
+import com.example.demowithtests.dto.bulk.BulkOperationReportDto;
+import com.example.demowithtests.service.job.JobStatus;
+import com.example.demowithtests.service.job.JobType;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class JobReadDto {
+    private String id;
+    private JobType type;
+    private JobStatus status;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long totalRows;
+    private long processedRows;
+    private double rowsPerSecond;
+    private Long durationMs;
+    private BulkOperationReportDto report;
+    private String error;
+}
@@ -0,0 +1,23 @@
+package com.example.demowithtests.dto.mail;
+
+import com.example.demowithtests.domain.CampaignStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class MailCampaignReadDto {
+    private Long id;
+    private CampaignStatus status;
+    private int ratePerSecond;
+    private int parallelism;
+    private long enqueued;
+    private boolean enqueueFinished;
+    private List<MailStatusCountDto> mails;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    // id of the job delivering the campaign, set when it was just submitted
+    private String jobId;
+}
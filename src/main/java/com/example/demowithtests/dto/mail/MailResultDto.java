@@ -0,0 +1,16 @@
+package com.example.demowithtests.dto.mail;
+
+import com.example.demowithtests.domain.MailStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class MailResultDto {
+    private Integer employeeId;
+    private String recipient;
+    private MailStatus status;
+    private int attempts;
+    private String lastError;
+    private LocalDateTime sentAt;
+}
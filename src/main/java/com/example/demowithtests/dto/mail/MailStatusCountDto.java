@@ -0,0 +1,14 @@
+package com.example.demowithtests.dto.mail;
+
+import com.example.demowithtests.domain.MailStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MailStatusCountDto {
+    private MailStatus status;
+    private long mails;
+}
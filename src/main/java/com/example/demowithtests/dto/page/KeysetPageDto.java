@@ -0,0 +1,17 @@
+package com.example.demowithtests.dto.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPageDto<T> {
+    private List<T> content;
+    private int size;
+    // cursor for the next page, null on the last page
+    private String next;
+}
@@ -0,0 +1,27 @@
+package com.example.demowithtests.dto.stats;
+
+import com.example.demowithtests.domain.Gender;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts over every row of users, soft-deleted ones included. Rows without a country or gender are only
+ * left out of the respective map.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeStatsDto {
+    private long employees;
+    private long deleted;
+    private long privateEmployees;
+    private long confirmed;
+    private Map<String, Long> byCountry = new HashMap<>();
+    private Map<Gender, Long> byGender = new HashMap<>();
+    private LocalDateTime reconciledAt;
+}
@@ -0,0 +1,21 @@
+package com.example.demowithtests.dto.stats;
+
+import com.example.demowithtests.domain.Gender;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of the GROUP BY the stats counters are reconciled with.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeStatsGroupDto {
+    private String country;
+    private Gender gender;
+    private Boolean isDeleted;
+    private Boolean isPrivate;
+    private Boolean isConfirmed;
+    private long employees;
+}
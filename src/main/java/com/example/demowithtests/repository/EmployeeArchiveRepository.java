@@ -0,0 +1,72 @@
+package com.example.demowithtests.repository;
+
+import com.example.demowithtests.domain.ArchivedEmployee;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves rows between users/addresses and users_archive/addresses_archive with set-based statements,
+ * the rows are never loaded into the persistence context.
+ */
+@Repository
+public interface EmployeeArchiveRepository extends JpaRepository<ArchivedEmployee, Integer> {
+
+    //---------------------------------------------------------------
+    // users -> archive; rows restored in the meantime (is_deleted no longer true) are left alone
+    @Modifying
+    @Query(value = "insert into users_archive (id, name, email, country, gender, is_private, is_confirmed, " +
+            "email_domain, email_domain_reversed, deleted_at, archived_at, version) " +
+            "select u.id, u.name, u.email, u.country, u.gender, u.is_private, u.is_confirmed, " +
+            "u.email_domain, u.email_domain_reversed, u.deleted_at, :archivedAt, u.version " +
+            "from users u where u.id in (:ids) and u.is_deleted = true", nativeQuery = true)
+    int copyToArchive(List<Integer> ids, LocalDateTime archivedAt);
+
+    @Modifying
+    @Query(value = "insert into addresses_archive (id, address_has_active, city, country, street, employee_id) " +
+            "select a.id, a.address_has_active, a.city, a.country, a.street, a.employee_id from addresses a " +
+            "where a.employee_id in (select ua.id from users_archive ua where ua.id in (:ids))", nativeQuery = true)
+    int copyAddressesToArchive(List<Integer> ids);
+
+    @Modifying
+    @Query(value = "delete from addresses a where a.employee_id in " +
+            "(select ua.id from users_archive ua where ua.id in (:ids))", nativeQuery = true)
+    int deleteArchivedAddresses(List<Integer> ids);
+
+    @Modifying
+    @Query(value = "delete from users u where u.id in " +
+            "(select ua.id from users_archive ua where ua.id in (:ids))", nativeQuery = true)
+    int deleteArchivedEmployees(List<Integer> ids);
+
+    @Query("select a.id from ArchivedEmployee a where a.id in (:ids)")
+    List<Integer> findIdsIn(List<Integer> ids);
+
+    //---------------------------------------------------------------
+    // archive -> users
+    @Modifying
+    // the row comes back undeleted, so it gets a new version
+    @Query(value = "insert into users (id, name, email, country, gender, is_deleted, is_private, is_confirmed, " +
+            "email_domain, email_domain_reversed, deleted_at, version) " +
+            "select ua.id, ua.name, ua.email, ua.country, ua.gender, false, ua.is_private, ua.is_confirmed, " +
+            "ua.email_domain, ua.email_domain_reversed, null, ua.version + 1 from users_archive ua where ua.id = :id",
+            nativeQuery = true)
+    int restoreEmployee(Integer id);
+
+    @Modifying
+    @Query(value = "insert into addresses (id, address_has_active, city, country, street, employee_id) " +
+            "select aa.id, aa.address_has_active, aa.city, aa.country, aa.street, aa.employee_id " +
+            "from addresses_archive aa where aa.employee_id = :id", nativeQuery = true)
+    int restoreAddresses(Integer id);
+
+    @Modifying
+    @Query(value = "delete from addresses_archive aa where aa.employee_id = :id", nativeQuery = true)
+    int deleteAddressesFromArchive(Integer id);
+
+    @Modifying
+    @Query(value = "delete from users_archive ua where ua.id = :id", nativeQuery = true)
+    int deleteFromArchive(Integer id);
+}
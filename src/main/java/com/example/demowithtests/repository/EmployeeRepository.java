@@ -1,30 +1,117 @@
 package com.example.demowithtests.repository;
 
 import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.domain.Gender;
+import com.example.demowithtests.dto.analytics.EmployeeAttributesDto;
+import com.example.demowithtests.dto.country.CountryCountDto;
+import com.example.demowithtests.dto.employee.EmployeeSummaryDto;
+import com.example.demowithtests.dto.stats.EmployeeStatsGroupDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
 
     Employee findByName(String name);
 
+    // employee and addresses in one select, getById() maps both
+    @Override
+    @EntityGraph(attributePaths = "addresses")
+    Optional<Employee> findById(Integer id);
+
     @NotNull
     Page<Employee> findAll(Pageable pageable);
 
     Page<Employee> findByName(String name, Pageable pageable);
 
+    /**
+     * Streams the whole table with a JDBC fetch size, so rows are read from the cursor as they are consumed.
+     * Has to be called inside a transaction and the stream has to be closed.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select e from Employee e")
+    Stream<Employee> streamAll();
+
     Page<Employee> findByCountryContaining(String country, Pageable pageable);
 
-    @Query(value = "select * from users join addresses on users.id = addresses.employee_id " +
-            "where users.gender = :gender and addresses.country = :country", nativeQuery = true)
-    List<Employee> findByGender(String gender, String country);
+    /**
+     * Streams id and text fields of the employees getById shows (not deleted, not private, confirmed),
+     * used to build the search index.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.demowithtests.dto.employee.EmployeeSummaryDto(" +
+            "e.id, e.name, e.email, e.country, e.gender) from Employee e " +
+            "where (e.isDeleted is null or e.isDeleted = false) and e.isPrivate = false and e.isConfirmed = true")
+    Stream<EmployeeSummaryDto> streamVisibleSummaries();
+
+    // same as streamVisibleSummaries() for a range written by updateNameByIdRange
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.demowithtests.dto.employee.EmployeeSummaryDto(" +
+            "e.id, e.name, e.email, e.country, e.gender) from Employee e where e.id > :fromId and e.id <= :toId " +
+            "and (e.isDeleted is null or e.isDeleted = false) and e.isPrivate = false and e.isConfirmed = true")
+    Stream<EmployeeSummaryDto> streamVisibleSummariesInRange(Integer fromId, Integer toId);
+
+    /**
+     * Streams the counted columns of all employees, used to load the analytics snapshot.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.demowithtests.dto.analytics.EmployeeAttributesDto(" +
+            "e.id, e.country, e.gender, e.isDeleted, e.isPrivate, e.isConfirmed) from Employee e")
+    Stream<EmployeeAttributesDto> streamAttributes();
+
+    @Query("select new com.example.demowithtests.dto.stats.EmployeeStatsGroupDto(" +
+            "e.country, e.gender, e.isDeleted, e.isPrivate, e.isConfirmed, count(e)) from Employee e " +
+            "group by e.country, e.gender, e.isDeleted, e.isPrivate, e.isConfirmed")
+    List<EmployeeStatsGroupDto> countGroups();
+
+    //---------------------------------------------------------------
+    // Country projections: only the country column is transferred
+    @Query("select e.country from Employee e")
+    List<String> findAllCountries();
+
+    /**
+     * @param prefix LIKE wildcards have to be escaped with a backslash
+     */
+    @Query("select e.country from Employee e where e.country like concat(:prefix, '%') escape '\\' " +
+            "order by e.country")
+    List<String> findCountriesStartingWith(String prefix);
+
+    @Query("select new com.example.demowithtests.dto.country.CountryCountDto(e.country, count(e)) " +
+            "from Employee e where e.country like concat(:prefix, '%') escape '\\' " +
+            "group by e.country order by e.country")
+    List<CountryCountDto> countByCountryStartingWith(String prefix);
+
+    //---------------------------------------------------------------
+    // Email domain lookups, served by the indexes on email_domain and email_domain_reversed
+    Page<Employee> findByEmailDomain(String emailDomain, Pageable pageable);
+
+    long countByEmailDomain(String emailDomain);
+
+    Optional<Employee> findFirstByEmailDomain(String emailDomain);
+
+    Optional<Employee> findFirstByEmailDomainReversedStartingWith(String emailDomainReversed);
+
+    //---------------------------------------------------------------
+    // one row per employee: the address country is checked with a semi-join, addresses are never loaded
+    @Query(value = "select new com.example.demowithtests.dto.employee.EmployeeSummaryDto(" +
+            "e.id, e.name, e.email, e.country, e.gender) from Employee e where e.gender = :gender and exists (" +
+            "select a.id from Employee o join o.addresses a where o.id = e.id and a.country = :country)",
+            countQuery = "select count(e) from Employee e where e.gender = :gender and exists (" +
+                    "select a.id from Employee o join o.addresses a where o.id = e.id and a.country = :country)")
+    Page<EmployeeSummaryDto> findByGenderAndAddressCountry(Gender gender, String country, Pageable pageable);
 
     @Query("select e from Employee e join e.addresses a where a.addressHasActive = true and a.country = :country")
     Page<Employee> findAllWhereIsActiveAddressByCountry(String country, Pageable pageable);
@@ -37,6 +124,26 @@ public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
     @Query("select e from Employee e where e.isDeleted = true")
     Page<Employee> findAllDeleted(Pageable pageable);
 
+    //---------------------------------------------------------------
+    // Keyset (seek) pagination in (name, id) order
+    @Query(value = "select * from users u where (u.name, u.id) > (:name, :id) " +
+            "order by u.name, u.id limit :limit", nativeQuery = true)
+    List<Employee> seekAll(String name, Integer id, int limit);
+
+    @Query(value = "select * from users u where u.is_deleted = false and (u.name, u.id) > (:name, :id) " +
+            "order by u.name, u.id limit :limit", nativeQuery = true)
+    List<Employee> seekActive(String name, Integer id, int limit);
+
+    @Query(value = "select * from users u where u.is_deleted = true and (u.name, u.id) > (:name, :id) " +
+            "order by u.name, u.id limit :limit", nativeQuery = true)
+    List<Employee> seekDeleted(String name, Integer id, int limit);
+
+    @Query(value = "select * from users u where (u.name, u.id) > (:name, :id) and exists (" +
+            "select 1 from addresses a where a.employee_id = u.id " +
+            "and a.address_has_active = true and a.country = :country) " +
+            "order by u.name, u.id limit :limit", nativeQuery = true)
+    List<Employee> seekWhereIsActiveAddressByCountry(String country, String name, Integer id, int limit);
+
     //---------------------------------------------------------------
     List<Employee> queryEmployeeByIsDeletedIsNull();
 
@@ -44,5 +151,32 @@ public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
 
     List<Employee> queryEmployeeByIsConfirmedNull();
 
+    // recipients of mail campaigns: employees that have not confirmed yet, whether the flag is unset or false
+    @Query("select e from Employee e where e.id > :afterId and (e.isConfirmed is null or e.isConfirmed = false) " +
+            "and e.email is not null and (e.isDeleted is null or e.isDeleted = false) order by e.id")
+    List<Employee> findUnconfirmedAfter(Integer afterId, Pageable pageable);
+
+    // candidates for the archive, oldest ids first
+    @Query("select e.id from Employee e where e.isDeleted = true and e.deletedAt < :threshold order by e.id")
+    List<Integer> findIdsDeletedBefore(LocalDateTime threshold, Pageable pageable);
+
+    // revalidation of an entity tag without loading the row; only rows getById would show have a version
+    @Query("select e.version from Employee e where e.id = :id and (e.isDeleted is null or e.isDeleted = false) " +
+            "and e.isPrivate = false and e.isConfirmed = true")
+    Optional<Long> findVisibleVersionById(Integer id);
+
+    //---------------------------------------------------------------
+    // Keyset iteration for chunked bulk operations
+    @Query("select e.id from Employee e where e.id > :afterId order by e.id")
+    List<Integer> findIdsAfter(Integer afterId, Pageable pageable);
+
+    @Modifying
+    @Query("update Employee e set e.name = :name, e.version = e.version + 1 where e.id > :fromId and e.id <= :toId")
+    int updateNameByIdRange(String name, Integer fromId, Integer toId);
+
+    // clearing the table before a generation, addresses first because of their foreign key
+    @Modifying
+    @Query(value = "delete from addresses a where a.employee_id is not null", nativeQuery = true)
+    int deleteAllAddressesOfEmployees();
 
 }
@@ -0,0 +1,9 @@
+package com.example.demowithtests.repository;
+
+import com.example.demowithtests.domain.MailCampaign;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MailCampaignRepository extends JpaRepository<MailCampaign, Long> {
+}
@@ -0,0 +1,64 @@
+package com.example.demowithtests.repository;
+
+import com.example.demowithtests.domain.MailStatus;
+import com.example.demowithtests.domain.OutboxMail;
+import com.example.demowithtests.dto.mail.MailStatusCountDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<OutboxMail, Long> {
+
+    /**
+     * Claims due mails for delivery. Rows locked by another dispatcher are skipped: the timeout -2 is rendered as
+     * {@code for update skip locked} by PostgreSQL95Dialect and later, older dialects ignore it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select m from OutboxMail m where m.campaignId is null and m.status = :status " +
+            "and m.nextAttemptAt <= :now order by m.id")
+    List<OutboxMail> findDue(MailStatus status, LocalDateTime now, Pageable pageable);
+
+    long countByStatus(MailStatus status);
+
+    //---------------------------------------------------------------
+    // Mail campaigns
+
+    /**
+     * Due mails of one campaign worker. Workers split the campaign by {@code id mod workers},
+     * so they never compete for the same rows.
+     */
+    @Query("select m from OutboxMail m where m.campaignId = :campaignId and m.status = :status " +
+            "and m.nextAttemptAt <= :now and mod(m.id, :workers) = :worker order by m.id")
+    List<OutboxMail> findDueForCampaign(Long campaignId, MailStatus status, LocalDateTime now,
+                                        long workers, long worker, Pageable pageable);
+
+    // the earliest retry of a campaign, empty when nothing is left to send
+    @Query("select min(m.nextAttemptAt) from OutboxMail m where m.campaignId = :campaignId and m.status = :status")
+    Optional<LocalDateTime> findNextAttemptAt(Long campaignId, MailStatus status);
+
+    @Modifying
+    @Query("update OutboxMail m set m.status = :to, m.lastError = :error " +
+            "where m.campaignId = :campaignId and m.status = :from")
+    int changeStatus(Long campaignId, MailStatus from, MailStatus to, String error);
+
+    @Query("select new com.example.demowithtests.dto.mail.MailStatusCountDto(m.status, count(m)) " +
+            "from OutboxMail m where m.campaignId = :campaignId group by m.status order by m.status")
+    List<MailStatusCountDto> countByCampaign(Long campaignId);
+
+    long countByCampaignIdAndStatus(Long campaignId, MailStatus status);
+
+    Page<OutboxMail> findByCampaignId(Long campaignId, Pageable pageable);
+}
@@ -0,0 +1,25 @@
+package com.example.demowithtests.service;
+
+import com.example.demowithtests.util.exception.BadRequestException;
+
+/**
+ * Argument checks of the bulk operations, shared by the synchronous calls and the job submission,
+ * so a job with bad arguments is rejected before it is queued.
+ */
+public final class BulkOperationArguments {
+    public static final int MAX_PARALLELISM = 8;
+
+    private BulkOperationArguments() {
+    }
+
+    public static void checkGenerate(Integer quantity, Boolean clear) {
+        if (quantity == null || quantity < 0) throw new BadRequestException("quantity must not be negative");
+        if (clear == null) throw new BadRequestException("clear must be set");
+    }
+
+    public static void checkMassUpdate(int chunkSize, int parallelism) {
+        if (chunkSize < 1) throw new BadRequestException("chunkSize must be positive");
+        if (parallelism < 1 || parallelism > MAX_PARALLELISM)
+            throw new BadRequestException("parallelism must be between 1 and " + MAX_PARALLELISM);
+    }
+}
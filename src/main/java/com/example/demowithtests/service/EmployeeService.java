@@ -2,28 +2,102 @@ package com.example.demowithtests.service;
 
 import com.example.demowithtests.domain.Employee;
 import com.example.demowithtests.domain.Gender;
+import com.example.demowithtests.dto.bulk.BulkOperationReportDto;
+import com.example.demowithtests.dto.bulk.CoalescingStatsDto;
+import com.example.demowithtests.dto.cache.CacheStatsDto;
+import com.example.demowithtests.dto.country.CountryCountDto;
 import com.example.demowithtests.dto.employee.EmployeeCreateDto;
+import com.example.demowithtests.dto.employee.EmployeePatchDto;
 import com.example.demowithtests.dto.employee.EmployeePutDto;
 import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.dto.employee.EmployeeSummaryDto;
+import com.example.demowithtests.dto.page.KeysetPageDto;
+import com.example.demowithtests.service.job.JobProgress;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     EmployeeReadDto createEmployee(EmployeeCreateDto createDto);
 
+    /**
+     * Inserts already validated employees in one transaction, using JDBC batches.
+     *
+     * @return ids of the new employees, in the order of {@code createDtos}
+     */
+    List<Integer> createAll(List<EmployeeCreateDto> createDtos);
+
     List<EmployeeReadDto> getAll();
 
+    /**
+     * Maps employees one by one and hands them to the consumer while the table is still being read.
+     * Only the current row is kept in the persistence context.
+     */
+    void streamAll(Consumer<EmployeeReadDto> consumer);
+
     Page<EmployeeReadDto> getAllWithPagination(Pageable pageable);
 
+    /**
+     * Keyset variant of {@link #getAllWithPagination(Pageable)}: pages are ordered by (name, id)
+     * and addressed by the cursor of the previous page, so deep pages cost the same as the first one.
+     *
+     * @param after cursor returned with the previous page, null for the first page
+     * @param size  number of entries in the page
+     */
+    KeysetPageDto<EmployeeReadDto> getAllWithSeek(String after, int size);
+
+    /**
+     * Returns a visible, public and confirmed employee. Served from a read-through cache,
+     * a cache hit does not touch the database.
+     */
     EmployeeReadDto getById(Integer id);
 
+    /**
+     * Current version of the employee, the entity tag of {@link #getById(Integer)}. A cache hit does not touch
+     * the database, a miss reads the version column only. Empty when the employee does not exist or
+     * {@link #getById(Integer)} would not show it, so a hidden employee cannot be probed by revalidation.
+     */
+    Optional<Long> getVersionById(Integer id);
+
+    CacheStatsDto getCacheStats();
+
     EmployeeReadDto updateById(Integer id, EmployeePutDto putDto);
 
+    /**
+     * @param expectedVersion version the caller has seen, null to update whatever the version
+     * @throws com.example.demowithtests.util.exception.PreconditionFailedException if the employee has another version
+     */
+    EmployeeReadDto updateById(Integer id, EmployeePutDto putDto, Long expectedVersion);
+
+    /**
+     * Applies the fields present in the patch. Only changed columns are written, nothing at all if no value changed.
+     */
+    EmployeeReadDto patchById(Integer id, EmployeePatchDto patchDto);
+
+    /**
+     * @param expectedVersion version the caller has seen, null to patch whatever the version
+     * @throws com.example.demowithtests.util.exception.PreconditionFailedException if the employee has another version
+     */
+    EmployeeReadDto patchById(Integer id, EmployeePatchDto patchDto, Long expectedVersion);
+
+    /**
+     * Applies one patch to all given employees with a single UPDATE. Rows that already have the values are not touched.
+     *
+     * @return number of updated rows
+     */
+    int patchAll(List<Integer> ids, EmployeePatchDto patchDto);
+
     void removeById(Integer id);
 
+    /**
+     * @param expectedVersion version the caller has seen, null to delete whatever the version
+     * @throws com.example.demowithtests.util.exception.PreconditionFailedException if the employee has another version
+     */
+    void removeById(Integer id, Long expectedVersion);
+
     void removeAll();
 
     /**
@@ -44,18 +118,42 @@ public interface EmployeeService {
     List<String> getAllEmployeeCountry();
 
     /**
-     * It returns a list of countries sorted by name.
+     * It returns a list of countries starting with the prefix, sorted by name.
+     * Filtering and sorting are done by the database.
      *
+     * @param prefix beginning of the country name, matched literally
      * @return A list of countries in alphabetical order.
      */
-    List<String> getSortCountry();
+    List<String> getSortCountry(String prefix);
 
-    Optional<String> findEmails();
+    /**
+     * Distinct countries starting with the prefix together with the number of employees from each of them.
+     *
+     * @param prefix beginning of the country name, matched literally; empty for all countries
+     */
+    List<CountryCountDto> countByCountry(String prefix);
+
+    /**
+     * Finds an email whose domain ends with the suffix with one indexed lookup.
+     *
+     * @param suffix end of the domain like ".com", or "@domain" for an exact domain
+     * @return the first matching email, "error?" if there is none
+     */
+    Optional<String> findEmails(String suffix);
+
+    Page<EmployeeReadDto> getByEmailDomain(String domain, Pageable pageable);
 
-    List<Employee> getByGender(Gender gender, String country);
+    long countByEmailDomain(String domain);
+
+    /**
+     * Employees of the given gender with at least one address in the country, each employee once.
+     */
+    Page<EmployeeSummaryDto> getByGender(Gender gender, String country, Pageable pageable);
 
     Page<Employee> getActiveAddressesByCountry(String country, Pageable pageable);
 
+    KeysetPageDto<Employee> getActiveAddressesByCountry(String country, String after, int size);
+
     List<Employee> handleEmployeesWithIsDeletedFieldIsNull();
 
     List<Employee> handleEmployeesWithIsPrivateFieldIsNull();
@@ -64,11 +162,57 @@ public interface EmployeeService {
 
     Page<Employee> getAllDeleted(Pageable pageable);
 
+    KeysetPageDto<Employee> getAllActive(String after, int size);
+
+    KeysetPageDto<Employee> getAllDeleted(String after, int size);
+
+    /**
+     * Puts a confirmation mail into the outbox in the caller's transaction; it is sent in the background.
+     */
     void sendMailConfirm(Integer id);
 
     void confirm(Integer id);
 
-    void generateEntity(Integer quantity, Boolean clear);
+    /**
+     * Inserts generated employees in JDBC batches, flushing and clearing the persistence context after each batch.
+     * With {@code clear} the table is emptied first by two set-based deletes and one bulk change is published.
+     *
+     * @return number of inserted rows, batches and the achieved throughput
+     * @throws com.example.demowithtests.util.exception.JobConflictException if another bulk write is running
+     */
+    BulkOperationReportDto generateEntity(Integer quantity, Boolean clear);
+
+    /**
+     * Same as {@link #generateEntity(Integer, Boolean)}, reporting progress after every batch
+     * and stopping early once the job is cancelled. The caller holds the
+     * {@link com.example.demowithtests.service.job.BulkWriteGuard}.
+     */
+    BulkOperationReportDto generateEntity(Integer quantity, Boolean clear, JobProgress progress);
+
+    /**
+     * Renames every employee chunk by chunk: ids are walked with a keyset cursor and every chunk
+     * is updated with one set-based statement in its own transaction.
+     *
+     * <p>
+     * Concurrent calls are coalesced: a call arriving while a mass update runs waits for the next run, which
+     * serves every call that arrived in the meantime, with the chunk size and parallelism of one of them.
+     *
+     * @param chunkSize   number of ids per chunk
+     * @param parallelism number of chunks updated concurrently
+     * @return number of updated rows, chunks and the achieved throughput
+     * @throws com.example.demowithtests.util.exception.JobConflictException if another bulk write is running
+     */
+    BulkOperationReportDto massTestUpdate(int chunkSize, int parallelism);
+
+    /**
+     * Runs of {@link #massTestUpdate(int, int)} and the calls that were served by another call's run.
+     */
+    CoalescingStatsDto getMassUpdateStats();
 
-    void massTestUpdate();
+    /**
+     * Same as {@link #massTestUpdate(int, int)}, reporting progress after every chunk
+     * and stopping early once the job is cancelled. The caller holds the
+     * {@link com.example.demowithtests.service.job.BulkWriteGuard}.
+     */
+    BulkOperationReportDto massTestUpdate(int chunkSize, int parallelism, JobProgress progress);
 }
@@ -2,35 +2,84 @@ package com.example.demowithtests.service;
 
 import com.example.demowithtests.domain.Employee;
 import com.example.demowithtests.domain.Gender;
+import com.example.demowithtests.domain.MailStatus;
+import com.example.demowithtests.domain.OutboxMail;
+import com.example.demowithtests.dto.bulk.BulkOperationReportDto;
+import com.example.demowithtests.dto.bulk.CoalescingStatsDto;
+import com.example.demowithtests.dto.cache.CacheStatsDto;
+import com.example.demowithtests.dto.country.CountryCountDto;
 import com.example.demowithtests.dto.employee.EmployeeCreateDto;
+import com.example.demowithtests.dto.employee.EmployeePatchDto;
 import com.example.demowithtests.dto.employee.EmployeePutDto;
 import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.dto.employee.EmployeeSummaryDto;
+import com.example.demowithtests.dto.page.KeysetPageDto;
 import com.example.demowithtests.repository.EmployeeRepository;
+import com.example.demowithtests.repository.MailOutboxRepository;
+import com.example.demowithtests.service.cache.EmployeeReadCache;
+import com.example.demowithtests.service.job.BulkWriteGuard;
+import com.example.demowithtests.service.job.JobProgress;
+import com.example.demowithtests.util.concurrent.SingleFlight;
 import com.example.demowithtests.util.config.EmployeeMapper;
+import com.example.demowithtests.util.event.EmployeeChange;
+import com.example.demowithtests.util.event.EmployeeChangedEvent;
+import com.example.demowithtests.util.event.EmployeeNamesChangedEvent;
+import com.example.demowithtests.util.event.EmployeeState;
 import com.example.demowithtests.util.exception.*;
-import com.example.demowithtests.util.mail.SmtpMailer;
+import com.example.demowithtests.util.mail.ConfirmationMail;
+import com.example.demowithtests.util.pagination.KeysetCursor;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @AllArgsConstructor
 @Slf4j
 @Service
 public class EmployeeServiceBean implements EmployeeService {
+    // Same value as hibernate.jdbc.batch_size and the allocationSize of the Employee id generator
+    private static final int BATCH_SIZE = 50;
+    // Same value as the @BatchSize of Employee.addresses
+    private static final int STREAM_WINDOW = 100;
+
     private final EmployeeRepository employeeRepository;
-    private final SmtpMailer smtpMailer;
+    private final MailOutboxRepository mailOutboxRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final EmployeeReadCache employeeReadCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BulkWriteGuard bulkWriteGuard;
+    // concurrent mass updates would rewrite the same rows under the same locks, see massTestUpdate(int, int)
+    private final SingleFlight<BulkOperationReportDto> massUpdateFlight = new SingleFlight<>();
 
     @Override
     public EmployeeReadDto createEmployee(EmployeeCreateDto createDto) {
@@ -40,6 +89,19 @@ public class EmployeeServiceBean implements EmployeeService {
         );
     }
 
+    @Override
+    @Transactional
+    public List<Integer> createAll(List<EmployeeCreateDto> createDtos) {
+        List<Employee> employees = createDtos.stream()
+                .map(EmployeeMapper.INSTANCE::employeeCreateDtoToEmployee)
+                .collect(Collectors.toList());
+        employeeRepository.saveAll(employees);
+        // ids are taken from the pooled sequence, the inserts go out in batches of BATCH_SIZE on flush
+        entityManager.flush();
+        entityManager.clear();
+        return employees.stream().map(Employee::getId).collect(Collectors.toList());
+    }
+
     @Override
     public List<EmployeeReadDto> getAll() {
 //        log.info("getAll() Service - start:");
@@ -52,6 +114,26 @@ public class EmployeeServiceBean implements EmployeeService {
 
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<EmployeeReadDto> consumer) {
+        List<Employee> window = new ArrayList<>(STREAM_WINDOW);
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            employees.forEach(employee -> {
+                window.add(employee);
+                if (window.size() == STREAM_WINDOW) mapAndDetach(window, consumer);
+            });
+        }
+        mapAndDetach(window, consumer);
+    }
+
+    // Mapping the first row loads the addresses of the whole window with one batch select.
+    private void mapAndDetach(List<Employee> window, Consumer<EmployeeReadDto> consumer) {
+        window.forEach(employee -> consumer.accept(EmployeeMapper.INSTANCE.employeeToEmployeeReadDTO(employee)));
+        window.forEach(entityManager::detach);
+        window.clear();
+    }
+
     private EmployeeReadDto hideEmployeeDetails(EmployeeReadDto employee) {
         log.debug("setEmployeePrivateFields() Service - start: id = {}", employee.getId());
         if (employee.getIsPrivate() == Boolean.TRUE || employee.getIsPrivate() == null) {
@@ -76,57 +158,103 @@ public class EmployeeServiceBean implements EmployeeService {
         return employeeReadDto;
     }
 
+    @Override
+    public KeysetPageDto<EmployeeReadDto> getAllWithSeek(String after, int size) {
+        return seek(after, size, employeeRepository::seekAll,
+                e -> hideEmployeeDetails(EmployeeMapper.INSTANCE.employeeToEmployeeReadDTO(e)));
+    }
+
+    // Reads one row more than requested to find out whether there is a next page.
+    private <T> KeysetPageDto<T> seek(String after, int size, SeekQuery query, Function<Employee, T> mapper) {
+        if (size < 1) throw new BadRequestException("size must be positive");
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        List<Employee> rows = query.find(cursor.getName(), cursor.getId(), size + 1);
+        boolean hasNext = rows.size() > size;
+        List<Employee> page = hasNext ? rows.subList(0, size) : rows;
+        String next = null;
+        if (hasNext) {
+            Employee last = page.get(page.size() - 1);
+            next = new KeysetCursor(last.getName(), last.getId()).encode();
+        }
+        return new KeysetPageDto<>(page.stream().map(mapper).collect(Collectors.toList()), page.size(), next);
+    }
+
+    @FunctionalInterface
+    private interface SeekQuery {
+        List<Employee> find(String name, Integer id, int limit);
+    }
+
     @Override
     public EmployeeReadDto getById(Integer id) {
         log.info("getById(Integer id) Service - start: id = {}", id);
+        EmployeeReadDto cached = employeeReadCache.get(id);
+        if (cached != null) {
+            log.info("getById(Integer id) Service - end: cache hit, id = {}", id);
+            return cached;
+        }
+        long invalidations = employeeReadCache.invalidations();
         var employee = employeeRepository.findById(id)
                 .orElseThrow(() ->
                         new NoSuchEmployeeException("There is no employee with ID = " + id + " in database"));
 
-        changeActiveStatus(employee);
-        changePrivateStatus(employee);
+        // null flags are not written back here, /users/proc-is-deleted and /users/proc-is-private backfill them
+        if (isDeleted(employee)) throw new ResourceNotVisibleException();
 
-        if (employee.getIsDeleted()) throw new ResourceNotVisibleException();
+        if (isPrivate(employee)) throw new ResourceIsPrivateException();
 
-        if (employee.getIsPrivate()) throw new ResourceIsPrivateException();
-
-        if (!employee.getIsConfirmed()) throw new EmployeeUnconfirmedDataException(
+        if (!Boolean.TRUE.equals(employee.getIsConfirmed())) throw new EmployeeUnconfirmedDataException(
                 "Employee " + employee.getName() + " has to confirm data. Check " + employee.getEmail() + " mail please"
         );
 
         log.info("getById(Integer id) Service - end:  = employee {}", employee);
-//        return mapper.employeeToEmployeeReadDTO(employee);
-        return EmployeeMapper.INSTANCE.employeeToEmployeeReadDTO(employee);
+        EmployeeReadDto employeeReadDto = EmployeeMapper.INSTANCE.employeeToEmployeeReadDTO(employee);
+        employeeReadCache.put(id, employeeReadDto, invalidations);
+        return employeeReadDto;
     }
 
-    private void changePrivateStatus(Employee employee) {
-        log.info("changePrivateStatus() Service - start: id = {}", employee.getId());
-        if (employee.getIsPrivate() == null) {
-            employee.setIsPrivate(Boolean.TRUE);
-            employeeRepository.save(employee);
-        }
-        log.info("changePrivateStatus() Service - end: IsPrivate = {}", employee.getIsPrivate());
+    @Override
+    public Optional<Long> getVersionById(Integer id) {
+        // only visible employees are cached
+        EmployeeReadDto cached = employeeReadCache.get(id);
+        if (cached != null) return Optional.of(cached.getVersion());
+        return employeeRepository.findVisibleVersionById(id);
     }
 
-    //
-    private void changeActiveStatus(Employee employee) {
-        log.info("changeActiveStatus() Service - start: id = {}", employee.getId());
-        if (employee.getIsDeleted() == null) {
-            employee.setIsDeleted(Boolean.FALSE);
-            employeeRepository.save(employee);
-        }
-        log.info("changeActiveStatus() Service - end: isVisible = {}", employee.getIsDeleted());
+    // an employee without the flag is visible
+    private static boolean isDeleted(Employee employee) {
+        return Boolean.TRUE.equals(employee.getIsDeleted());
+    }
+
+    // an employee without the flag is treated as private
+    private static boolean isPrivate(Employee employee) {
+        return !Boolean.FALSE.equals(employee.getIsPrivate());
     }
 
     @Override
+    public CacheStatsDto getCacheStats() {
+        return employeeReadCache.stats();
+    }
+
+    @Override
+    @Transactional
     public EmployeeReadDto updateById(Integer id, EmployeePutDto putDto) {
+        return updateById(id, putDto, null);
+    }
+
+    @Override
+    @Transactional
+    public EmployeeReadDto updateById(Integer id, EmployeePutDto putDto, Long expectedVersion) {
+        if (putDto.getName() == null) throw new BadRequestException("Name may not be null");
         return employeeRepository.findById(id)
                 .map(entity -> {
+                    checkVersion(entity, expectedVersion);
                     entity.setName(putDto.getName());
                     entity.setEmail(putDto.getEmail());
                     entity.setCountry(putDto.getCountry());
 //                    entity.setIsDeleted(putDto.getIsDeleted());
                     Employee employee = employeeRepository.save(entity);
+                    // the returned version is the entity tag of the response
+                    entityManager.flush();
 //                    return mapper.employeeToEmployeeReadDTO(employee);
                     return EmployeeMapper.INSTANCE.employeeToEmployeeReadDTO(employee);
 
@@ -135,14 +263,95 @@ public class EmployeeServiceBean implements EmployeeService {
 
     }
 
+    @Override
+    @Transactional
+    public EmployeeReadDto patchById(Integer id, EmployeePatchDto patchDto) {
+        return patchById(id, patchDto, null);
+    }
+
+    @Override
+    @Transactional
+    public EmployeeReadDto patchById(Integer id, EmployeePatchDto patchDto, Long expectedVersion) {
+        Employee employee = employeeRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Employee not found with id = " + id));
+        checkVersion(employee, expectedVersion);
+        // absent fields are left alone; a value equal to the current one is still set, dirty checking skips the write
+        if (patchDto.getName() != null) employee.setName(patchDto.getName());
+        if (patchDto.getCountry() != null) employee.setCountry(patchDto.getCountry());
+        if (patchDto.getEmail() != null) employee.setEmail(patchDto.getEmail());
+        if (patchDto.getGender() != null) employee.setGender(patchDto.getGender());
+        if (patchDto.getIsPrivate() != null) employee.setIsPrivate(patchDto.getIsPrivate());
+        entityManager.flush();
+        return EmployeeMapper.INSTANCE.employeeToEmployeeReadDTO(employee);
+    }
+
+    @Override
+    @Transactional
+    public int patchAll(List<Integer> ids, EmployeePatchDto patchDto) {
+        if (patchDto.isEmpty() || ids.isEmpty()) return 0;
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Employee> update = cb.createCriteriaUpdate(Employee.class);
+        Root<Employee> root = update.from(Employee.class);
+        List<Predicate> changed = new ArrayList<>();
+        setIfPresent(cb, update, root, changed, "name", patchDto.getName());
+        setIfPresent(cb, update, root, changed, "country", patchDto.getCountry());
+        setIfPresent(cb, update, root, changed, "gender", patchDto.getGender());
+        setIfPresent(cb, update, root, changed, "isPrivate", patchDto.getIsPrivate());
+        Path<Long> version = root.get("version");
+        update.set(version, cb.sum(version, 1L));
+        if (patchDto.getEmail() != null) {
+            setIfPresent(cb, update, root, changed, "email", patchDto.getEmail());
+            // a bulk update skips @PreUpdate, so the derived columns are set here
+            String domain = Employee.domainOf(patchDto.getEmail());
+            update.set(root.<String>get("emailDomain"), domain);
+            update.set(root.<String>get("emailDomainReversed"), Employee.reversed(domain));
+        }
+        update.where(root.get("id").in(ids), cb.or(changed.toArray(new Predicate[0])));
+        int updated = entityManager.createQuery(update).executeUpdate();
+        if (updated > 0) publishUpdated(ids);
+        log.info("patchAll() Service - end: ids = {}, updated = {}", ids.size(), updated);
+        return updated;
+    }
+
+    // a bulk update bypasses the entity listener, the changed rows are read back for the change listeners,
+    // what they held before is not known
+    private void publishUpdated(List<Integer> ids) {
+        entityManager.clear();
+        employeeRepository.findAllById(ids).forEach(employee -> eventPublisher.publishEvent(
+                EmployeeChange.updated(employee.getId(), null, EmployeeState.of(employee))));
+    }
+
+    private static <T> void setIfPresent(CriteriaBuilder cb, CriteriaUpdate<Employee> update, Root<Employee> root,
+                                         List<Predicate> changed, String attribute, T value) {
+        if (value == null) return;
+        Path<T> path = root.get(attribute);
+        update.set(path, value);
+        changed.add(cb.or(path.isNull(), cb.notEqual(path, value)));
+    }
+
     @Override
     public void removeById(Integer id) {
+        removeById(id, null);
+    }
+
+    @Override
+    public void removeById(Integer id, Long expectedVersion) {
         Employee employee = employeeRepository.findById(id)
                 .orElseThrow(ResourceNotFoundException::new);
-        employee.setIsDeleted(Boolean.FALSE);
+        checkVersion(employee, expectedVersion);
+        employee.setIsDeleted(Boolean.TRUE);
+        employee.setDeletedAt(LocalDateTime.now());
         employeeRepository.save(employee);
     }
 
+    // a concurrent update after the check still fails on flush, the UPDATE is guarded by the version
+    private static void checkVersion(Employee employee, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(employee.getVersion())) {
+            throw new PreconditionFailedException("Employee " + employee.getId() + " has version "
+                    + employee.getVersion() + ", not " + expectedVersion);
+        }
+    }
+
     @Override
     public void removeAll() {
         employeeRepository.deleteAll();
@@ -172,45 +381,50 @@ public class EmployeeServiceBean implements EmployeeService {
     @Override
     public List<String> getAllEmployeeCountry() {
         log.info("getAllEmployeeCountry() - start:");
-        List<Employee> employeeList = employeeRepository.findAll();
-        List<String> countries = employeeList.stream()
-                .map(country -> country.getCountry())
-                .collect(Collectors.toList());
-        log.info("getAllEmployeeCountry() - end: countries = {}", countries);
+        List<String> countries = employeeRepository.findAllCountries();
+        log.info("getAllEmployeeCountry() - end: countries = {}", countries.size());
         return countries;
     }
 
     @Override
-    public List<String> getSortCountry() {
-        List<Employee> employeeList = employeeRepository.findAll();
-        return employeeList.stream()
-                .map(Employee::getCountry)
-                .filter(c -> c.startsWith("U"))
-                .sorted(Comparator.naturalOrder())
-                .collect(Collectors.toList());
+    public List<String> getSortCountry(String prefix) {
+        return employeeRepository.findCountriesStartingWith(escapeLike(prefix));
     }
 
     @Override
-    public Optional<String> findEmails() {
-        var employeeList = employeeRepository.findAll();
+    public List<CountryCountDto> countByCountry(String prefix) {
+        return employeeRepository.countByCountryStartingWith(escapeLike(prefix));
+    }
 
-        var emails = employeeList.stream()
-                .map(Employee::getEmail)
-                .collect(Collectors.toList());
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Override
+    public Optional<String> findEmails(String suffix) {
+        String normalized = suffix.toLowerCase();
+        // '@gmail.com' means exactly this domain, 'gmail.com' or '.com' any domain ending with it
+        Optional<Employee> employee = normalized.startsWith("@")
+                ? employeeRepository.findFirstByEmailDomain(normalized.substring(1))
+                : employeeRepository.findFirstByEmailDomainReversedStartingWith(
+                new StringBuilder(normalized).reverse().toString());
+        return Optional.of(employee.map(Employee::getEmail).orElse("error?"));
+    }
 
-        var opt = emails.stream()
-                .filter(s -> s.endsWith(".com"))
-                .findFirst()
-                .orElse("error?");
-        return Optional.ofNullable(opt);
+    @Override
+    public Page<EmployeeReadDto> getByEmailDomain(String domain, Pageable pageable) {
+        return employeeRepository.findByEmailDomain(domain.toLowerCase(), pageable)
+                .map(e -> hideEmployeeDetails(EmployeeMapper.INSTANCE.employeeToEmployeeReadDTO(e)));
+    }
+
+    @Override
+    public long countByEmailDomain(String domain) {
+        return employeeRepository.countByEmailDomain(domain.toLowerCase());
     }
 
     @Override
-    public List<Employee> getByGender(Gender gender, String country) {
-        /*System.err.println("service getByGender start: gender: " + gender + " country: " + country);*/
-        var employees = employeeRepository.findByGender(gender.toString(), country);
-        /*System.err.println("service getByGender end: " + employees.toString());*/
-        return employees;
+    public Page<EmployeeSummaryDto> getByGender(Gender gender, String country, Pageable pageable) {
+        return employeeRepository.findByGenderAndAddressCountry(gender, country, pageable);
     }
 
     @Override
@@ -218,6 +432,12 @@ public class EmployeeServiceBean implements EmployeeService {
         return employeeRepository.findAllWhereIsActiveAddressByCountry(country, pageable);
     }
 
+    @Override
+    public KeysetPageDto<Employee> getActiveAddressesByCountry(String country, String after, int size) {
+        return seek(after, size, (name, id, limit) ->
+                employeeRepository.seekWhereIsActiveAddressByCountry(country, name, id, limit), Function.identity());
+    }
+
     //---------------------------------------------------------------------------------------
     @Override
     public List<Employee> handleEmployeesWithIsDeletedFieldIsNull() {
@@ -247,14 +467,33 @@ public class EmployeeServiceBean implements EmployeeService {
         return employeeRepository.findAllDeleted(pageable);
     }
 
+    @Override
+    public KeysetPageDto<Employee> getAllActive(String after, int size) {
+        return seek(after, size, employeeRepository::seekActive, Function.identity());
+    }
+
+    @Override
+    public KeysetPageDto<Employee> getAllDeleted(String after, int size) {
+        return seek(after, size, employeeRepository::seekDeleted, Function.identity());
+    }
+
     // hw-6
     //---------------------------------------------------------------------------------------
     @Override
+    @Transactional
     public void sendMailConfirm(Integer id) {
         Employee employee = employeeRepository.findById(id)
                 .orElseThrow(ResourceNotFoundException::new);
-        smtpMailer.send(employee);
-
+        LocalDateTime now = LocalDateTime.now();
+        mailOutboxRepository.save(OutboxMail.builder()
+                .employeeId(employee.getId())
+                .recipient(employee.getEmail())
+                .subject(ConfirmationMail.SUBJECT)
+                .body(ConfirmationMail.text(employee))
+                .status(MailStatus.PENDING)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
     }
 
     @Override
@@ -268,25 +507,135 @@ public class EmployeeServiceBean implements EmployeeService {
     // hw-7
     //---------------------------------------------------------------------------------------
     @Override
-    public void generateEntity(Integer quantity, Boolean clear) {
-        if (clear) employeeRepository.deleteAll();
+    public BulkOperationReportDto generateEntity(Integer quantity, Boolean clear) {
+        BulkOperationArguments.checkGenerate(quantity, clear);
+        try (BulkWriteGuard.Permit ignored = bulkWriteGuard.acquire("generate")) {
+            return generateEntity(quantity, clear, JobProgress.NONE);
+        }
+    }
 
-        List<Employee> employees = new ArrayList<>(1000);
+    @Override
+    public BulkOperationReportDto generateEntity(Integer quantity, Boolean clear, JobProgress progress) {
+        BulkOperationArguments.checkGenerate(quantity, clear);
+        long start = System.nanoTime();
+        progress.total(quantity);
+        BulkOperationReportDto report = transactionTemplate.execute(status -> {
+            if (clear) {
+                // set-based, the deleted rows never enter the persistence context
+                employeeRepository.deleteAllAddressesOfEmployees();
+                employeeRepository.deleteAllInBatch();
+            }
 
-        for (int i = 0; i < quantity; i++) {
-            employees.add(Employee.builder()
-                    .name("Name" + i)
-                    .email("artemjev.mih@gmail.com")
-                    .build());
-        }
-        employeeRepository.saveAll(employees);
+            long rows = 0;
+            long batches = 0;
+            for (Employee employee : (Iterable<Employee>) generateEmployees(quantity)::iterator) {
+                entityManager.persist(employee);
+                if (++rows % BATCH_SIZE == 0) {
+                    flushAndClear();
+                    batches++;
+                    progress.advance(BATCH_SIZE);
+                    if (progress.isCancelled()) break;
+                }
+            }
+            if (rows % BATCH_SIZE != 0) {
+                flushAndClear();
+                batches++;
+                progress.advance(rows % BATCH_SIZE);
+            }
+            return BulkOperationReportDto.of(rows, batches, start);
+        });
+        // the bulk deletes bypass the entity listener, the committed clear is announced as one bulk change
+        if (clear) eventPublisher.publishEvent(EmployeeChangedEvent.bulk());
+        log.info("generateEntity() Service - end: report = {}", report);
+        return report;
+    }
+
+    // Lazily produces the entities so only one batch is ever held in memory.
+    private Stream<Employee> generateEmployees(int quantity) {
+        return IntStream.range(0, quantity)
+                .mapToObj(i -> Employee.builder()
+                        .name("Name" + i)
+                        .email("artemjev.mih@gmail.com")
+                        .build());
+    }
+
+    // Sends the pending inserts as one JDBC batch and detaches them from the persistence context.
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
     }
 
     @Override
-    public void massTestUpdate() {
-        List<Employee> employees = employeeRepository.findAll();
-        employees.forEach(employee -> employee.setName(LocalDateTime.now().toString()));
-        employeeRepository.saveAll(employees);
+    public BulkOperationReportDto massTestUpdate(int chunkSize, int parallelism) {
+        BulkOperationArguments.checkMassUpdate(chunkSize, parallelism);
+        return massUpdateFlight.execute(() -> {
+            try (BulkWriteGuard.Permit ignored = bulkWriteGuard.acquire("mass update")) {
+                return massTestUpdate(chunkSize, parallelism, JobProgress.NONE);
+            }
+        });
+    }
+
+    @Override
+    public CoalescingStatsDto getMassUpdateStats() {
+        return new CoalescingStatsDto(massUpdateFlight.getExecutions(), massUpdateFlight.getCoalesced());
+    }
+
+    @Override
+    public BulkOperationReportDto massTestUpdate(int chunkSize, int parallelism, JobProgress progress) {
+        BulkOperationArguments.checkMassUpdate(chunkSize, parallelism);
+
+        long start = System.nanoTime();
+        if (progress != JobProgress.NONE) progress.total(employeeRepository.count());
+        AtomicLong rows = new AtomicLong();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        // at most `parallelism` chunks are in flight, so memory does not depend on the table size
+        Semaphore inFlight = new Semaphore(parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        long chunks = 0;
+        try {
+            Integer afterId = 0;
+            List<Integer> ids;
+            while (failure.get() == null && !progress.isCancelled()
+                    && !(ids = employeeRepository.findIdsAfter(afterId, PageRequest.of(0, chunkSize))).isEmpty()) {
+                Integer fromId = afterId;
+                Integer toId = ids.get(ids.size() - 1);
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        int updated = updateChunk(fromId, toId);
+                        rows.addAndGet(updated);
+                        progress.advance(updated);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                afterId = toId;
+                chunks++;
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Mass update was interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure.get() != null) throw failure.get();
+
+        BulkOperationReportDto report = BulkOperationReportDto.of(rows.get(), chunks, start);
+        log.info("massTestUpdate() Service - end: report = {}", report);
+        return report;
+    }
+
+    // Every chunk is committed separately, so a failure only rolls back the chunk it happened in.
+    // The rows are not read back: listeners get the id range and reload names only where they need them.
+    private int updateChunk(Integer fromId, Integer toId) {
+        Integer updated = transactionTemplate.execute(status ->
+                employeeRepository.updateNameByIdRange(LocalDateTime.now().toString(), fromId, toId));
+        eventPublisher.publishEvent(new EmployeeNamesChangedEvent(fromId, toId));
+        return updated == null ? 0 : updated;
     }
 
     //---------------------------------------------------------------------------------------
@@ -0,0 +1,16 @@
+package com.example.demowithtests.service.analytics;
+
+import com.example.demowithtests.dto.analytics.EmployeeAnalyticsDto;
+import com.example.demowithtests.util.analytics.EmployeeDimension;
+import com.example.demowithtests.util.analytics.EmployeeFilter;
+
+import java.util.Set;
+
+public interface EmployeeAnalyticsService {
+
+    /**
+     * Counts the employees matching {@code filter}, grouped by {@code dimensions}, from the in-memory snapshot.
+     * The snapshot follows committed changes, it does not see uncommitted ones.
+     */
+    EmployeeAnalyticsDto count(EmployeeFilter filter, Set<EmployeeDimension> dimensions);
+}
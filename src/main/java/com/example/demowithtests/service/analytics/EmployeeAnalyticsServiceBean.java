@@ -0,0 +1,159 @@
+package com.example.demowithtests.service.analytics;
+
+import com.example.demowithtests.dto.analytics.EmployeeAnalyticsDto;
+import com.example.demowithtests.dto.analytics.EmployeeAttributesDto;
+import com.example.demowithtests.dto.analytics.EmployeeGroupCountDto;
+import com.example.demowithtests.repository.EmployeeRepository;
+import com.example.demowithtests.util.analytics.EmployeeColumns;
+import com.example.demowithtests.util.analytics.EmployeeDimension;
+import com.example.demowithtests.util.analytics.EmployeeFilter;
+import com.example.demowithtests.util.event.EmployeeChange;
+import com.example.demowithtests.util.event.EmployeeChangedEvent;
+import com.example.demowithtests.util.event.EmployeeState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Keeps an {@link EmployeeColumns} snapshot of users: loaded by streaming the table before the web server
+ * starts, then updated from the committed {@link EmployeeChangedEvent}s. A bulk event loads a new snapshot on a
+ * background thread, not on the committing one; counts keep using the old one until it is swapped in.
+ */
+@Slf4j
+@Service
+public class EmployeeAnalyticsServiceBean implements EmployeeAnalyticsService, SmartInitializingSingleton {
+    private final boolean offHeap;
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "analytics-snapshot"));
+    // bulk events arriving while a reload runs queue one more reload, not one per event
+    private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+    private final Object reloading = new Object();
+    private volatile EmployeeColumns columns;
+    // ids changed while a new snapshot is loaded, their streamed rows may already be stale
+    private final Set<Integer> changedWhileLoading = new HashSet<>();
+    // the snapshot being loaded, it gets every change as well; null when no load runs
+    private EmployeeColumns loading;
+
+    public EmployeeAnalyticsServiceBean(EmployeeRepository employeeRepository,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${app.analytics.off-heap:false}") boolean offHeap) {
+        this.offHeap = offHeap;
+        this.columns = new EmployeeColumns(offHeap, ForkJoinPool.commonPool());
+        this.employeeRepository = employeeRepository;
+        // the background reload reads in a transaction of its own
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    @EventListener
+    public void onChanged(EmployeeChangedEvent event) {
+        if (event.isBulk()) {
+            if (reloadScheduled.compareAndSet(false, true)) {
+                loader.execute(this::reloadInBackground);
+            }
+            return;
+        }
+        for (EmployeeChange change : event.getChanges()) {
+            synchronized (changedWhileLoading) {
+                apply(columns, change);
+                if (loading != null) {
+                    changedWhileLoading.add(change.getId());
+                    apply(loading, change);
+                }
+            }
+        }
+    }
+
+    @Override
+    public EmployeeAnalyticsDto count(EmployeeFilter filter, Set<EmployeeDimension> dimensions) {
+        long start = System.nanoTime();
+        List<EmployeeGroupCountDto> groups = columns.countBy(filter, dimensions);
+        groups.sort(Comparator.comparing(EmployeeGroupCountDto::getEmployees).reversed());
+        long employees = groups.stream().mapToLong(EmployeeGroupCountDto::getEmployees).sum();
+        return new EmployeeAnalyticsDto(employees, dimensions.isEmpty() ? List.of() : groups,
+                (System.nanoTime() - start) / 1_000);
+    }
+
+    private void reloadInBackground() {
+        reloadScheduled.set(false);
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Analytics snapshot reload failed, it is retried by the next bulk write", e);
+        }
+    }
+
+    private void reload() {
+        synchronized (reloading) {
+            long start = System.nanoTime();
+            EmployeeColumns fresh = new EmployeeColumns(offHeap, ForkJoinPool.commonPool());
+            synchronized (changedWhileLoading) {
+                loading = fresh;
+            }
+            boolean loaded = false;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<EmployeeAttributesDto> employees = employeeRepository.streamAttributes()) {
+                        employees.forEach(employee -> {
+                            synchronized (changedWhileLoading) {
+                                if (!changedWhileLoading.contains(employee.getId())) {
+                                    fresh.put(employee.getId(), employee.getCountry(), employee.getGender(),
+                                            employee.getIsDeleted(), employee.getIsPrivate(),
+                                            employee.getIsConfirmed());
+                                }
+                            }
+                        });
+                    }
+                });
+                loaded = true;
+            } finally {
+                synchronized (changedWhileLoading) {
+                    if (loaded) columns = fresh;
+                    loading = null;
+                    changedWhileLoading.clear();
+                }
+            }
+            log.info("Analytics snapshot loaded: employees = {}, time = {} ms", fresh.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static void apply(EmployeeColumns columns, EmployeeChange change) {
+        EmployeeState state = change.getAfter();
+        if (state == null) {
+            columns.remove(change.getId());
+        } else {
+            columns.put(change.getId(), state.getCountry(), state.getGender(), state.getIsDeleted(),
+                    state.getIsPrivate(), state.getIsConfirmed());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demowithtests.service.archive;
+
+import com.example.demowithtests.dto.employee.ArchivedEmployeeReadDto;
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+
+public interface EmployeeArchiveService {
+
+    /**
+     * Moves employees soft-deleted longer than the retention period to the archive tables.
+     */
+    void archive();
+
+    /**
+     * Moves employees soft-deleted before {@code threshold} to the archive, one chunk per transaction.
+     *
+     * @return number of archived employees
+     */
+    int archiveDeletedBefore(LocalDateTime threshold);
+
+    /**
+     * Brings an employee back, no matter whether it is only soft-deleted or already archived.
+     */
+    EmployeeReadDto restore(Integer id);
+
+    Page<ArchivedEmployeeReadDto> getArchived(Pageable pageable);
+
+    ArchivedEmployeeReadDto getArchivedById(Integer id);
+}
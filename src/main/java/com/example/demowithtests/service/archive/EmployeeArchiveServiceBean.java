@@ -0,0 +1,136 @@
+package com.example.demowithtests.service.archive;
+
+import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.dto.employee.ArchivedEmployeeReadDto;
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.repository.EmployeeArchiveRepository;
+import com.example.demowithtests.repository.EmployeeRepository;
+import com.example.demowithtests.util.config.EmployeeMapper;
+import com.example.demowithtests.util.event.EmployeeChange;
+import com.example.demowithtests.util.event.EmployeeState;
+import com.example.demowithtests.util.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Soft-delete lifecycle: deleted employees stay in {@code users} for the retention period and can be restored
+ * in place, afterwards the archiver moves them with their addresses to {@code users_archive}/{@code addresses_archive}.
+ * Every chunk is copied and deleted in one transaction with insert-select/delete statements, so a crash leaves
+ * the row either in users or in the archive, never in both.
+ */
+@Slf4j
+@Service
+public class EmployeeArchiveServiceBean implements EmployeeArchiveService {
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeArchiveRepository employeeArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration retention;
+    private final int chunkSize;
+
+    public EmployeeArchiveServiceBean(EmployeeRepository employeeRepository,
+                                      EmployeeArchiveRepository employeeArchiveRepository,
+                                      TransactionTemplate transactionTemplate,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${app.archive.retention:30d}") Duration retention,
+                                      @Value("${app.archive.chunk-size:500}") int chunkSize) {
+        this.employeeRepository = employeeRepository;
+        this.employeeArchiveRepository = employeeArchiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.archive.interval:3600000}",
+            initialDelayString = "${app.archive.interval:3600000}")
+    public void archive() {
+        int archived = archiveDeletedBefore(LocalDateTime.now().minus(retention));
+        if (archived > 0) {
+            log.info("Archived {} employees deleted more than {} ago", archived, retention);
+        }
+    }
+
+    @Override
+    public int archiveDeletedBefore(LocalDateTime threshold) {
+        int total = 0;
+        while (true) {
+            Integer archived = transactionTemplate.execute(status -> archiveChunk(threshold));
+            if (archived == null || archived == 0) {
+                return total;
+            }
+            total += archived;
+        }
+    }
+
+    private int archiveChunk(LocalDateTime threshold) {
+        List<Integer> ids = employeeRepository.findIdsDeletedBefore(threshold, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // rows restored after the select are skipped by the is_deleted guard of the copy
+        int archived = employeeArchiveRepository.copyToArchive(ids, LocalDateTime.now());
+        employeeArchiveRepository.copyAddressesToArchive(ids);
+        employeeArchiveRepository.deleteArchivedAddresses(ids);
+        employeeArchiveRepository.deleteArchivedEmployees(ids);
+        List<Integer> archivedIds = archived == ids.size() ? ids : employeeArchiveRepository.findIdsIn(ids);
+        archivedIds.forEach(id -> eventPublisher.publishEvent(EmployeeChange.removed(id, null)));
+        return archived;
+    }
+
+    @Override
+    public EmployeeReadDto restore(Integer id) {
+        return transactionTemplate.execute(status -> {
+            Optional<Employee> employee = employeeRepository.findById(id);
+            if (employee.isPresent()) {
+                return EmployeeMapper.INSTANCE.employeeToEmployeeReadDTO(undelete(employee.get()));
+            }
+            if (!employeeArchiveRepository.existsById(id)) {
+                throw new ResourceNotFoundException();
+            }
+            employeeArchiveRepository.restoreEmployee(id);
+            employeeArchiveRepository.restoreAddresses(id);
+            employeeArchiveRepository.deleteAddressesFromArchive(id);
+            employeeArchiveRepository.deleteFromArchive(id);
+            Employee restoredEmployee = employeeRepository.findById(id).orElseThrow(ResourceNotFoundException::new);
+            eventPublisher.publishEvent(EmployeeChange.created(id, EmployeeState.of(restoredEmployee)));
+            return EmployeeMapper.INSTANCE.employeeToEmployeeReadDTO(restoredEmployee);
+        });
+    }
+
+    private Employee undelete(Employee employee) {
+        if (Boolean.TRUE.equals(employee.getIsDeleted())) {
+            employee.setIsDeleted(Boolean.FALSE);
+            employee.setDeletedAt(null);
+        }
+        return employee;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ArchivedEmployeeReadDto> getArchived(Pageable pageable) {
+        return employeeArchiveRepository.findAll(pageable).map(EmployeeMapper.INSTANCE::archivedEmployeeToReadDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ArchivedEmployeeReadDto getArchivedById(Integer id) {
+        return employeeArchiveRepository.findById(id)
+                .map(EmployeeMapper.INSTANCE::archivedEmployeeToReadDto)
+                .orElseThrow(ResourceNotFoundException::new);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demowithtests.service.cache;
+
+import com.example.demowithtests.dto.cache.CacheStatsDto;
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.util.config.EmployeeMapper;
+import com.example.demowithtests.util.event.EmployeeChange;
+import com.example.demowithtests.util.event.EmployeeChangedEvent;
+import com.example.demowithtests.util.event.EmployeeNamesChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded, expiring cache of visible employees keyed by id. Entries are evicted by the committed
+ * {@link EmployeeChangedEvent}s and {@link EmployeeNamesChangedEvent}s, so a reader never caches a row that a
+ * transaction still may roll back, and a row is not evicted before the new one is readable.
+ * <p>
+ * Callers get their own copy of an entry. A loader reads {@link #invalidations()} before it loads the row and
+ * passes it to {@link #put}: an entry loaded before an eviction is dropped instead of outliving the write.
+ */
+@Component
+public class EmployeeReadCache {
+    private final Cache<Integer, EmployeeReadDto> cache;
+    private long invalidations;
+
+    public EmployeeReadCache(@Value("${app.cache.employee.maximum-size:10000}") long maximumSize,
+                             @Value("${app.cache.employee.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return copy of the cached employee or null on a miss
+     */
+    public EmployeeReadDto get(Integer id) {
+        EmployeeReadDto cached = cache.getIfPresent(id);
+        return cached == null ? null : EmployeeMapper.INSTANCE.copy(cached);
+    }
+
+    public synchronized long invalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Caches a copy of the employee unless anything was evicted since {@code invalidations} was read.
+     */
+    public synchronized void put(Integer id, EmployeeReadDto employee, long invalidations) {
+        if (this.invalidations == invalidations) {
+            cache.put(id, EmployeeMapper.INSTANCE.copy(employee));
+        }
+    }
+
+    @EventListener
+    public synchronized void onChanged(EmployeeChangedEvent event) {
+        invalidations++;
+        if (event.isBulk()) {
+            cache.invalidateAll();
+        } else {
+            event.getChanges().stream().map(EmployeeChange::getId).forEach(cache::invalidate);
+        }
+    }
+
+    @EventListener
+    public synchronized void onNamesChanged(EmployeeNamesChangedEvent event) {
+        invalidations++;
+        cache.asMap().keySet().removeIf(id -> id > event.getFromId() && id <= event.getToId());
+    }
+
+    public CacheStatsDto stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.evictionCount(), cache.estimatedSize());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demowithtests.service.job;
+
+import com.example.demowithtests.util.exception.JobConflictException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One permit shared by everything that rewrites the users table in bulk: generation (which may delete all rows
+ * first) and mass updates, whether they run as a job or synchronously in a request. A second bulk writer is
+ * rejected instead of queued, so it never waits on the locks of the first one.
+ * <p>
+ * The permit is not bound to a thread: a job takes it when it is submitted and gives it back on its worker.
+ */
+@Component
+public class BulkWriteGuard {
+    private final Semaphore permits = new Semaphore(1);
+    private volatile String holder;
+
+    /**
+     * @throws JobConflictException if another bulk write holds the permit
+     */
+    public Permit acquire(String operation) {
+        if (!permits.tryAcquire()) {
+            throw new JobConflictException("Another bulk write is running: " + holder);
+        }
+        holder = operation;
+        return new Permit();
+    }
+
+    public class Permit implements AutoCloseable {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                holder = null;
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demowithtests.service.job;
+
+import com.example.demowithtests.dto.bulk.BulkOperationReportDto;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one submitted job. Updated by the worker thread, read by the status endpoint.
+ */
+@Getter
+public class Job implements JobProgress {
+    private final String id = UUID.randomUUID().toString();
+    private final JobType type;
+    private final Instant createdAt = Instant.now();
+    private final AtomicLong totalRows = new AtomicLong();
+    private final AtomicLong processedRows = new AtomicLong();
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile BulkOperationReportDto report;
+    private volatile String error;
+
+    public Job(JobType type) {
+        this.type = type;
+    }
+
+    @Override
+    public void total(long rows) {
+        totalRows.set(rows);
+    }
+
+    @Override
+    public void advance(long rows) {
+        processedRows.addAndGet(rows);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void started() {
+        startedAt = Instant.now();
+        status = JobStatus.RUNNING;
+    }
+
+    void succeeded(BulkOperationReportDto report) {
+        this.report = report;
+        finish(cancelRequested ? JobStatus.CANCELLED : JobStatus.SUCCEEDED);
+    }
+
+    void failed(Exception e) {
+        error = e.getMessage();
+        finish(JobStatus.FAILED);
+    }
+
+    void cancelledBeforeStart() {
+        finish(JobStatus.CANCELLED);
+    }
+
+    private void finish(JobStatus finalStatus) {
+        finishedAt = Instant.now();
+        status = finalStatus;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demowithtests.service.job;
+
+/**
+ * Callback through which a long-running service operation reports progress and checks for cancellation.
+ */
+public interface JobProgress {
+
+    JobProgress NONE = new JobProgress() {
+        @Override
+        public void total(long rows) {
+        }
+
+        @Override
+        public void advance(long rows) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    void total(long rows);
+
+    void advance(long rows);
+
+    boolean isCancelled();
+}
@@ -0,0 +1,44 @@
+package com.example.demowithtests.service.job;
+
+import com.example.demowithtests.dto.bulk.BulkOperationReportDto;
+import com.example.demowithtests.dto.job.JobReadDto;
+import com.example.demowithtests.util.exception.BadRequestException;
+
+import java.util.List;
+import java.util.function.Function;
+
+public interface JobService {
+
+    /**
+     * Queues a batched employee generation and returns immediately.
+     *
+     * @throws BadRequestException if the arguments are invalid, nothing is queued then
+     * @throws com.example.demowithtests.util.exception.JobConflictException if another bulk write is running
+     */
+    JobReadDto submitGenerate(Integer quantity, Boolean clear);
+
+    /**
+     * Queues a chunked mass update and returns immediately.
+     *
+     * @throws BadRequestException if the arguments are invalid, nothing is queued then
+     * @throws com.example.demowithtests.util.exception.JobConflictException if another bulk write is running
+     */
+    JobReadDto submitMassUpdate(int chunkSize, int parallelism);
+
+    /**
+     * Queues any other long-running operation that reports its progress through {@link JobProgress}.
+     *
+     * @throws com.example.demowithtests.util.exception.JobConflictException if a job of the same type is not finished yet,
+     *                                                                        or the type is a bulk write and another one is running
+     */
+    JobReadDto submit(JobType type, Function<JobProgress, BulkOperationReportDto> work);
+
+    JobReadDto getById(String id);
+
+    List<JobReadDto> getAll();
+
+    /**
+     * Requests cancellation. A queued job is cancelled at once, a running one stops after its current batch.
+     */
+    JobReadDto cancel(String id);
+}
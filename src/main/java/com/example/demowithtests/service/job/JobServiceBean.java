@@ -0,0 +1,171 @@
+package com.example.demowithtests.service.job;
+
+import com.example.demowithtests.dto.bulk.BulkOperationReportDto;
+import com.example.demowithtests.dto.job.JobReadDto;
+import com.example.demowithtests.service.BulkOperationArguments;
+import com.example.demowithtests.service.EmployeeService;
+import com.example.demowithtests.util.exception.JobConflictException;
+import com.example.demowithtests.util.exception.JobNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class JobServiceBean implements JobService {
+    private final EmployeeService employeeService;
+    private final BulkWriteGuard bulkWriteGuard;
+    private final ThreadPoolExecutor executor;
+    private final Duration retention;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // at most one unfinished job per type; bulk writes of different types are kept apart by bulkWriteGuard
+    private final Map<JobType, Job> activeJobs = new ConcurrentHashMap<>();
+
+    public JobServiceBean(EmployeeService employeeService,
+                          BulkWriteGuard bulkWriteGuard,
+                          @Value("${app.jobs.pool-size:2}") int poolSize,
+                          @Value("${app.jobs.queue-capacity:10}") int queueCapacity,
+                          @Value("${app.jobs.retention:1h}") Duration retention) {
+        this.employeeService = employeeService;
+        this.bulkWriteGuard = bulkWriteGuard;
+        this.retention = retention;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "job-" + threadNumber.incrementAndGet()));
+    }
+
+    @Override
+    public JobReadDto submitGenerate(Integer quantity, Boolean clear) {
+        // rejected here, not as a failed job
+        BulkOperationArguments.checkGenerate(quantity, clear);
+        return submit(JobType.GENERATE, job -> employeeService.generateEntity(quantity, clear, job));
+    }
+
+    @Override
+    public JobReadDto submitMassUpdate(int chunkSize, int parallelism) {
+        BulkOperationArguments.checkMassUpdate(chunkSize, parallelism);
+        return submit(JobType.MASS_UPDATE, job -> employeeService.massTestUpdate(chunkSize, parallelism, job));
+    }
+
+    @Override
+    public JobReadDto submit(JobType type, Function<JobProgress, BulkOperationReportDto> work) {
+        evictExpired();
+        Job job = new Job(type);
+        Job active = activeJobs.putIfAbsent(type, job);
+        if (active != null) {
+            throw new JobConflictException("Job " + active.getId() + " of type " + type + " is still " + active.getStatus());
+        }
+        BulkWriteGuard.Permit permit;
+        try {
+            permit = type.isBulkWrite() ? bulkWriteGuard.acquire(type + " job " + job.getId()) : null;
+        } catch (JobConflictException e) {
+            activeJobs.remove(type, job);
+            throw e;
+        }
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, work, permit));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            activeJobs.remove(type, job);
+            if (permit != null) permit.close();
+            throw new JobConflictException("Job queue is full, try again later");
+        }
+        log.info("submit() JobService - queued: id = {}, type = {}", job.getId(), type);
+        return toDto(job);
+    }
+
+    @Override
+    public JobReadDto getById(String id) {
+        return toDto(find(id));
+    }
+
+    @Override
+    public List<JobReadDto> getAll() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(Job::getCreatedAt).reversed())
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public JobReadDto cancel(String id) {
+        Job job = find(id);
+        job.requestCancel();
+        log.info("cancel() JobService - cancel requested: id = {}, status = {}", id, job.getStatus());
+        return toDto(job);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(Job::requestCancel);
+        executor.shutdown();
+    }
+
+    private void run(Job job, Function<JobProgress, BulkOperationReportDto> work, BulkWriteGuard.Permit permit) {
+        try {
+            if (job.isCancelled()) {
+                job.cancelledBeforeStart();
+                return;
+            }
+            job.started();
+            job.succeeded(work.apply(job));
+            log.info("run() JobService - finished: id = {}, status = {}, report = {}",
+                    job.getId(), job.getStatus(), job.getReport());
+        } catch (Exception e) {
+            log.error("run() JobService - failed: id = {}", job.getId(), e);
+            job.failed(e);
+        } finally {
+            activeJobs.remove(job.getType(), job);
+            if (permit != null) permit.close();
+        }
+    }
+
+    private Job find(String id) {
+        Job job = jobs.get(id);
+        if (job == null) throw new JobNotFoundException("There is no job with ID = " + id);
+        return job;
+    }
+
+    private void evictExpired() {
+        Instant threshold = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.getStatus().isFinished() && job.getFinishedAt().isBefore(threshold));
+    }
+
+    private JobReadDto toDto(Job job) {
+        JobReadDto dto = new JobReadDto();
+        dto.setId(job.getId());
+        dto.setType(job.getType());
+        dto.setStatus(job.getStatus());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        dto.setTotalRows(job.getTotalRows().get());
+        dto.setProcessedRows(job.getProcessedRows().get());
+        dto.setReport(job.getReport());
+        dto.setError(job.getError());
+        if (job.getStartedAt() != null) {
+            Instant end = job.getFinishedAt() != null ? job.getFinishedAt() : Instant.now();
+            long durationMs = Math.max(Duration.between(job.getStartedAt(), end).toMillis(), 1);
+            dto.setRowsPerSecond(dto.getProcessedRows() * 1000d / durationMs);
+            if (job.getFinishedAt() != null) dto.setDurationMs(durationMs);
+        }
+        return dto;
+    }
+}
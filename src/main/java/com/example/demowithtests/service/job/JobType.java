@@ -0,0 +1,12 @@
+package com.example.demowithtests.service.job;
+
+public enum JobType {
+    GENERATE, MASS_UPDATE, MAIL_CAMPAIGN;
+
+    /**
+     * Jobs that rewrite the users table hold the {@link BulkWriteGuard} from submission to the end of the run.
+     */
+    public boolean isBulkWrite() {
+        return this == GENERATE || this == MASS_UPDATE;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demowithtests.service.mail;
+
+import com.example.demowithtests.dto.bulk.BulkOperationReportDto;
+import com.example.demowithtests.dto.mail.MailCampaignReadDto;
+import com.example.demowithtests.dto.mail.MailResultDto;
+import com.example.demowithtests.service.job.JobProgress;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface MailCampaignService {
+
+    /**
+     * Creates a confirmation-mail campaign for all unconfirmed employees and queues it as a job.
+     *
+     * @param ratePerSecond mails per second over all connections, 0 means unlimited
+     * @param parallelism   number of SMTP connections kept open while the campaign runs
+     */
+    MailCampaignReadDto start(int ratePerSecond, int parallelism);
+
+    /**
+     * Queues an interrupted or incomplete campaign again. Mails already sent are never sent twice.
+     */
+    MailCampaignReadDto resume(Long id);
+
+    MailCampaignReadDto getById(Long id);
+
+    Page<MailResultDto> getResults(Long id, Pageable pageable);
+
+    /**
+     * Enqueues the rest of the recipients and delivers all mails of the campaign, waiting out the retry
+     * backoff until every mail is sent or given up. A cancelled run leaves the campaign INCOMPLETE.
+     */
+    BulkOperationReportDto run(Long id, JobProgress progress);
+}
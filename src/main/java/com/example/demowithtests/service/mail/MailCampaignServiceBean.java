@@ -0,0 +1,332 @@
+package com.example.demowithtests.service.mail;
+
+import com.example.demowithtests.domain.CampaignStatus;
+import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.domain.MailCampaign;
+import com.example.demowithtests.domain.MailStatus;
+import com.example.demowithtests.domain.OutboxMail;
+import com.example.demowithtests.dto.bulk.BulkOperationReportDto;
+import com.example.demowithtests.dto.job.JobReadDto;
+import com.example.demowithtests.dto.mail.MailCampaignReadDto;
+import com.example.demowithtests.dto.mail.MailResultDto;
+import com.example.demowithtests.repository.EmployeeRepository;
+import com.example.demowithtests.repository.MailCampaignRepository;
+import com.example.demowithtests.repository.MailOutboxRepository;
+import com.example.demowithtests.service.job.JobProgress;
+import com.example.demowithtests.service.job.JobService;
+import com.example.demowithtests.service.job.JobType;
+import com.example.demowithtests.util.concurrent.RateLimiter;
+import com.example.demowithtests.util.exception.BadRequestException;
+import com.example.demowithtests.util.exception.JobConflictException;
+import com.example.demowithtests.util.exception.ResourceNotFoundException;
+import com.example.demowithtests.util.mail.ConfirmationMail;
+import com.example.demowithtests.util.mail.MailConnection;
+import com.example.demowithtests.util.mail.MailRetryPolicy;
+import com.example.demowithtests.util.mail.Mailer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Sends confirmation mails to all unconfirmed employees.
+ * <p>
+ * Recipients are enqueued page by page into the mail outbox, the page and the campaign cursor are committed
+ * together. Delivery runs on {@code parallelism} workers, each with its own SMTP connection, sharing one
+ * {@link RateLimiter}. A mail is switched to SENDING before it is handed to the server; a SENDING mail found
+ * on resume is marked FAILED instead of being sent again, because it may already have been delivered.
+ * Mails waiting for a retry keep the run going until they are sent or given up, so a campaign only stays
+ * INCOMPLETE when it is cancelled or its run fails.
+ */
+@Slf4j
+@Service
+public class MailCampaignServiceBean implements MailCampaignService {
+    static final int MAX_PARALLELISM = 8;
+    static final String DELIVERY_UNKNOWN = "Delivery unknown: the campaign stopped while sending";
+    // how often a run waiting for retries looks at its cancel flag
+    private static final long RETRY_POLL_MS = 1000;
+
+    private final MailCampaignRepository mailCampaignRepository;
+    private final MailOutboxRepository mailOutboxRepository;
+    private final EmployeeRepository employeeRepository;
+    private final Mailer mailer;
+    private final MailRetryPolicy retryPolicy;
+    private final TransactionTemplate transactionTemplate;
+    private final JobService jobService;
+    private final int pageSize;
+    private final int claimSize;
+
+    public MailCampaignServiceBean(MailCampaignRepository mailCampaignRepository,
+                                   MailOutboxRepository mailOutboxRepository,
+                                   EmployeeRepository employeeRepository,
+                                   Mailer mailer,
+                                   MailRetryPolicy retryPolicy,
+                                   TransactionTemplate transactionTemplate,
+                                   JobService jobService,
+                                   @Value("${app.mail.campaign.page-size:500}") int pageSize,
+                                   @Value("${app.mail.campaign.claim-size:20}") int claimSize) {
+        this.mailCampaignRepository = mailCampaignRepository;
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.employeeRepository = employeeRepository;
+        this.mailer = mailer;
+        this.retryPolicy = retryPolicy;
+        this.transactionTemplate = transactionTemplate;
+        this.jobService = jobService;
+        this.pageSize = pageSize;
+        this.claimSize = claimSize;
+    }
+
+    @Override
+    public MailCampaignReadDto start(int ratePerSecond, int parallelism) {
+        if (ratePerSecond < 0) throw new BadRequestException("ratePerSecond must not be negative");
+        if (parallelism < 1 || parallelism > MAX_PARALLELISM)
+            throw new BadRequestException("parallelism must be between 1 and " + MAX_PARALLELISM);
+
+        MailCampaign campaign = mailCampaignRepository.save(MailCampaign.builder()
+                .status(CampaignStatus.CREATED)
+                .ratePerSecond(ratePerSecond)
+                .parallelism(parallelism)
+                .lastEmployeeId(0)
+                .createdAt(LocalDateTime.now())
+                .build());
+        log.info("start() MailCampaignService - created: id = {}", campaign.getId());
+        try {
+            return submit(campaign);
+        } catch (JobConflictException e) {
+            // nothing was queued, so the campaign would stay CREATED forever
+            mailCampaignRepository.delete(campaign);
+            throw e;
+        }
+    }
+
+    @Override
+    public MailCampaignReadDto resume(Long id) {
+        MailCampaign campaign = find(id);
+        if (campaign.getStatus() == CampaignStatus.COMPLETED) {
+            throw new JobConflictException("Campaign " + id + " is already completed");
+        }
+        return submit(campaign);
+    }
+
+    @Override
+    public MailCampaignReadDto getById(Long id) {
+        return toDto(find(id));
+    }
+
+    @Override
+    public Page<MailResultDto> getResults(Long id, Pageable pageable) {
+        find(id);
+        return mailOutboxRepository.findByCampaignId(id, pageable).map(this::toResultDto);
+    }
+
+    @Override
+    public BulkOperationReportDto run(Long id, JobProgress progress) {
+        long start = System.nanoTime();
+        MailCampaign campaign = transactionTemplate.execute(status -> {
+            MailCampaign c = find(id);
+            // the previous run died between handing mails to the server and recording the result
+            int unknown = mailOutboxRepository.changeStatus(id, MailStatus.SENDING, MailStatus.FAILED, DELIVERY_UNKNOWN);
+            if (unknown > 0) log.warn("run() MailCampaignService - {} mails of campaign {} have unknown delivery", unknown, id);
+            c.setStatus(CampaignStatus.RUNNING);
+            if (c.getStartedAt() == null) c.setStartedAt(LocalDateTime.now());
+            c.setFinishedAt(null);
+            return c;
+        });
+
+        long pages = 0;
+        while (!campaign.isEnqueueFinished() && !progress.isCancelled()) {
+            campaign = enqueuePage(id);
+            pages++;
+        }
+        progress.total(mailOutboxRepository.countByCampaignIdAndStatus(id, MailStatus.PENDING));
+
+        long sent = deliver(campaign, progress);
+        while (awaitRetry(id, progress)) {
+            sent += deliver(campaign, progress);
+        }
+
+        MailCampaign finished = transactionTemplate.execute(status -> {
+            MailCampaign c = find(id);
+            boolean done = c.isEnqueueFinished() && mailOutboxRepository.countByCampaignIdAndStatus(id, MailStatus.PENDING) == 0;
+            c.setStatus(done ? CampaignStatus.COMPLETED : CampaignStatus.INCOMPLETE);
+            c.setFinishedAt(LocalDateTime.now());
+            return c;
+        });
+        BulkOperationReportDto report = BulkOperationReportDto.of(sent, pages, start);
+        log.info("run() MailCampaignService - end: id = {}, status = {}, report = {}", id, finished.getStatus(), report);
+        return report;
+    }
+
+    private MailCampaignReadDto submit(MailCampaign campaign) {
+        Long id = campaign.getId();
+        JobReadDto job = jobService.submit(JobType.MAIL_CAMPAIGN, progress -> run(id, progress));
+        MailCampaignReadDto dto = toDto(campaign);
+        dto.setJobId(job.getId());
+        return dto;
+    }
+
+    // One page of recipients and the cursor behind it are committed together.
+    private MailCampaign enqueuePage(Long id) {
+        return transactionTemplate.execute(status -> {
+            MailCampaign c = find(id);
+            List<Employee> employees = employeeRepository.findUnconfirmedAfter(c.getLastEmployeeId(),
+                    PageRequest.of(0, pageSize));
+            LocalDateTime now = LocalDateTime.now();
+            mailOutboxRepository.saveAll(employees.stream()
+                    .map(employee -> OutboxMail.builder()
+                            .campaignId(id)
+                            .employeeId(employee.getId())
+                            .recipient(employee.getEmail())
+                            .subject(ConfirmationMail.SUBJECT)
+                            .body(ConfirmationMail.text(employee))
+                            .status(MailStatus.PENDING)
+                            .createdAt(now)
+                            .nextAttemptAt(now)
+                            .build())
+                    .collect(Collectors.toList()));
+            if (!employees.isEmpty()) c.setLastEmployeeId(employees.get(employees.size() - 1).getId());
+            c.setEnqueued(c.getEnqueued() + employees.size());
+            c.setEnqueueFinished(employees.size() < pageSize);
+            return c;
+        });
+    }
+
+    private long deliver(MailCampaign campaign, JobProgress progress) {
+        int workers = campaign.getParallelism();
+        RateLimiter rateLimiter = new RateLimiter(campaign.getRatePerSecond());
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int worker = 0; worker < workers; worker++) {
+                int partition = worker;
+                results.add(executor.submit(() -> work(campaign.getId(), workers, partition, rateLimiter, progress)));
+            }
+            long sent = 0;
+            for (Future<Long> result : results) {
+                sent += result.get();
+            }
+            return sent;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Mail campaign was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Mail campaign worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Sleeps until the earliest mail in backoff is due; false when there is none left or the run is cancelled.
+    private boolean awaitRetry(Long id, JobProgress progress) {
+        Optional<LocalDateTime> next = mailOutboxRepository.findNextAttemptAt(id, MailStatus.PENDING);
+        if (next.isEmpty()) return false;
+        try {
+            long waitMs;
+            while (!progress.isCancelled() && (waitMs = Duration.between(LocalDateTime.now(), next.get()).toMillis()) > 0) {
+                Thread.sleep(Math.min(waitMs, RETRY_POLL_MS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !progress.isCancelled();
+    }
+
+    // One worker owns the mails with id mod workers == partition and keeps its connection open between batches.
+    private long work(Long id, int workers, int partition, RateLimiter rateLimiter, JobProgress progress) {
+        long sent = 0;
+        MailConnection connection = null;
+        try {
+            List<OutboxMail> claimed;
+            while (!progress.isCancelled() && !(claimed = claim(id, workers, partition)).isEmpty()) {
+                for (OutboxMail mail : claimed) {
+                    if (progress.isCancelled() || Thread.currentThread().isInterrupted()) {
+                        // not handed to the server yet, safe to send on resume
+                        mail.setStatus(MailStatus.PENDING);
+                        continue;
+                    }
+                    try {
+                        rateLimiter.acquire();
+                        if (connection == null) connection = mailer.connect();
+                        connection.send(mail.getRecipient(), mail.getSubject(), mail.getBody());
+                        mail.setStatus(MailStatus.SENT);
+                        mail.setSentAt(LocalDateTime.now());
+                        mail.setAttempts(mail.getAttempts() + 1);
+                        sent++;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        mail.setStatus(MailStatus.PENDING);
+                    } catch (SendFailedException e) {
+                        // rejected recipient, the connection itself is fine
+                        retryPolicy.failed(mail, e);
+                    } catch (MessagingException e) {
+                        retryPolicy.failed(mail, e);
+                        if (connection != null) connection.close();
+                        connection = null;
+                    }
+                    progress.advance(1);
+                }
+                List<OutboxMail> results = claimed;
+                transactionTemplate.executeWithoutResult(status -> mailOutboxRepository.saveAll(results));
+            }
+        } finally {
+            if (connection != null) connection.close();
+        }
+        return sent;
+    }
+
+    private List<OutboxMail> claim(Long id, int workers, int partition) {
+        return transactionTemplate.execute(status -> {
+            List<OutboxMail> due = mailOutboxRepository.findDueForCampaign(id, MailStatus.PENDING, LocalDateTime.now(),
+                    workers, partition, PageRequest.of(0, claimSize));
+            due.forEach(mail -> mail.setStatus(MailStatus.SENDING));
+            return due;
+        });
+    }
+
+    private MailCampaign find(Long id) {
+        return mailCampaignRepository.findById(id).orElseThrow(ResourceNotFoundException::new);
+    }
+
+    private MailCampaignReadDto toDto(MailCampaign campaign) {
+        MailCampaignReadDto dto = new MailCampaignReadDto();
+        dto.setId(campaign.getId());
+        dto.setStatus(campaign.getStatus());
+        dto.setRatePerSecond(campaign.getRatePerSecond());
+        dto.setParallelism(campaign.getParallelism());
+        dto.setEnqueued(campaign.getEnqueued());
+        dto.setEnqueueFinished(campaign.isEnqueueFinished());
+        dto.setMails(mailOutboxRepository.countByCampaign(campaign.getId()));
+        dto.setCreatedAt(campaign.getCreatedAt());
+        dto.setStartedAt(campaign.getStartedAt());
+        dto.setFinishedAt(campaign.getFinishedAt());
+        return dto;
+    }
+
+    private MailResultDto toResultDto(OutboxMail mail) {
+        MailResultDto dto = new MailResultDto();
+        dto.setEmployeeId(mail.getEmployeeId());
+        dto.setRecipient(mail.getRecipient());
+        dto.setStatus(mail.getStatus());
+        dto.setAttempts(mail.getAttempts());
+        dto.setLastError(mail.getLastError());
+        dto.setSentAt(mail.getSentAt());
+        return dto;
+    }
+}
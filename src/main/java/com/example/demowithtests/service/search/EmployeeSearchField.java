@@ -0,0 +1,14 @@
+package com.example.demowithtests.service.search;
+
+/**
+ * Searchable text fields, in the order they are stored in the index.
+ */
+public enum EmployeeSearchField {
+    NAME, EMAIL, COUNTRY;
+
+    public static final int ALL = (1 << values().length) - 1;
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demowithtests.service.search;
+
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.util.exception.BadRequestException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface EmployeeSearchService {
+
+    /**
+     * Visible (active, not private, confirmed) employees whose name, email or country contains {@code query},
+     * ignoring case, best matches first.
+     *
+     * @param query at least {@link com.example.demowithtests.util.search.TrigramIndex#MIN_QUERY_LENGTH} characters
+     * @param field only this field is searched, null means all of them
+     * @throws BadRequestException if the query is shorter
+     */
+    Page<EmployeeReadDto> search(String query, EmployeeSearchField field, Pageable pageable);
+
+    /**
+     * Number of employees in the index.
+     */
+    int size();
+}
@@ -0,0 +1,253 @@
+package com.example.demowithtests.service.search;
+
+import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.dto.employee.EmployeeSummaryDto;
+import com.example.demowithtests.repository.EmployeeRepository;
+import com.example.demowithtests.util.config.EmployeeMapper;
+import com.example.demowithtests.util.event.EmployeeChange;
+import com.example.demowithtests.util.event.EmployeeChangedEvent;
+import com.example.demowithtests.util.event.EmployeeNamesChangedEvent;
+import com.example.demowithtests.util.event.EmployeeState;
+import com.example.demowithtests.util.exception.BadRequestException;
+import com.example.demowithtests.util.search.TrigramIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Substring search served by an in-memory {@link TrigramIndex} of the employees getById shows. Private and
+ * unconfirmed employees are never indexed, so a query cannot even tell that one of them matches.
+ * <p>
+ * The index is filled from a stream over users before the web server starts and then follows the committed
+ * {@link EmployeeChangedEvent}s. Whatever has to be read back from the table runs on one background thread, never
+ * on the committing one: a bulk event builds a new index that is swapped in when complete, and ranges renamed by
+ * a mass update are reloaded after their commit. Searches keep using the current index meanwhile.
+ * Only ids come from the index, the page itself is loaded by primary key.
+ */
+@Slf4j
+@Service
+public class EmployeeSearchServiceBean implements EmployeeSearchService, SmartInitializingSingleton {
+    private static final int NAME_WEIGHT = 4;
+    private static final int EMAIL_WEIGHT = 2;
+    private static final int COUNTRY_WEIGHT = 1;
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService reader = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "search-index"));
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final Object rebuilding = new Object();
+    private volatile TrigramIndex index = newIndex();
+    // ids changed while rows are read back, their streamed rows may already be stale
+    private final Set<Integer> changedWhileReading = new HashSet<>();
+    private boolean reading;
+    // the index being built, it gets every change as well; null when no build runs
+    private TrigramIndex building;
+    // ranges whose names were rewritten in bulk, guarded by changedWhileReading like the index writes
+    private final Deque<EmployeeNamesChangedEvent> staleNames = new ArrayDeque<>();
+
+    public EmployeeSearchServiceBean(EmployeeRepository employeeRepository, TransactionTemplate transactionTemplate) {
+        this.employeeRepository = employeeRepository;
+        // the background reads run in transactions of their own
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reader.shutdownNow();
+    }
+
+    @EventListener
+    public void onChanged(EmployeeChangedEvent event) {
+        if (event.isBulk()) {
+            rebuildRequested.set(true);
+            schedule();
+            return;
+        }
+        for (EmployeeChange change : event.getChanges()) {
+            synchronized (changedWhileReading) {
+                apply(index, change);
+                if (reading) changedWhileReading.add(change.getId());
+                if (building != null) apply(building, change);
+            }
+        }
+    }
+
+    @EventListener
+    public void onNamesChanged(EmployeeNamesChangedEvent event) {
+        synchronized (changedWhileReading) {
+            EmployeeNamesChangedEvent last = staleNames.peekLast();
+            // chunks of one mass update mostly commit in id order, so the queue stays short
+            if (last != null && last.getToId().equals(event.getFromId())) {
+                staleNames.pollLast();
+                staleNames.addLast(new EmployeeNamesChangedEvent(last.getFromId(), event.getToId()));
+            } else {
+                staleNames.addLast(event);
+            }
+        }
+        schedule();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<EmployeeReadDto> search(String query, EmployeeSearchField field, Pageable pageable) {
+        if (query == null || query.length() < TrigramIndex.MIN_QUERY_LENGTH) {
+            throw new BadRequestException(
+                    "Search query must have at least " + TrigramIndex.MIN_QUERY_LENGTH + " characters");
+        }
+        int limit = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+        TrigramIndex.Hits hits = index.search(query, field == null ? EmployeeSearchField.ALL : field.mask(), limit);
+        List<TrigramIndex.Hit> top = hits.getTop();
+        int from = (int) Math.min(pageable.getOffset(), top.size());
+        List<Integer> ids = top.subList(from, top.size()).stream()
+                .map(TrigramIndex.Hit::getId)
+                .collect(Collectors.toList());
+        Map<Integer, Employee> employees = employeeRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+        // relevance order of the index, rows deleted or hidden in the meantime are skipped
+        List<EmployeeReadDto> content = ids.stream()
+                .map(employees::get)
+                .filter(employee -> employee != null && EmployeeState.of(employee).isVisible())
+                .map(EmployeeMapper.INSTANCE::employeeToEmployeeReadDTO)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, hits.getTotal());
+    }
+
+    // events arriving while the reader is busy queue one more pass, not one per event
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            reader.execute(this::catchUp);
+        }
+    }
+
+    private void catchUp() {
+        scheduled.set(false);
+        try {
+            if (rebuildRequested.getAndSet(false)) rebuild();
+            refreshStaleNames();
+        } catch (RuntimeException e) {
+            log.warn("Search index update failed, it is retried by the next bulk write", e);
+        }
+    }
+
+    private void rebuild() {
+        synchronized (rebuilding) {
+            long start = System.nanoTime();
+            TrigramIndex fresh = newIndex();
+            synchronized (changedWhileReading) {
+                building = fresh;
+                reading = true;
+                // the build streams the current names of these ranges
+                staleNames.clear();
+            }
+            boolean built = false;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<EmployeeSummaryDto> employees = employeeRepository.streamVisibleSummaries()) {
+                        employees.forEach(employee -> put(fresh, employee));
+                    }
+                });
+                built = true;
+            } finally {
+                synchronized (changedWhileReading) {
+                    if (built) index = fresh;
+                    building = null;
+                    doneReading();
+                }
+            }
+            log.info("Search index built: employees = {}, time = {} ms", fresh.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // a range stays queued until it is reloaded, a failed read is retried by the next pass
+    private void refreshStaleNames() {
+        while (true) {
+            EmployeeNamesChangedEvent range;
+            synchronized (changedWhileReading) {
+                range = staleNames.peekFirst();
+                if (range == null) return;
+                reading = true;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<EmployeeSummaryDto> employees = employeeRepository.streamVisibleSummariesInRange(
+                            range.getFromId(), range.getToId())) {
+                        employees.forEach(employee -> put(index, employee));
+                    }
+                });
+            } finally {
+                synchronized (changedWhileReading) {
+                    doneReading();
+                }
+            }
+            synchronized (changedWhileReading) {
+                // a later chunk merged into the range makes it a new one, which is read again
+                if (staleNames.peekFirst() == range) staleNames.removeFirst();
+            }
+        }
+    }
+
+    // a row changed after it was read is already up to date in the index, the streamed one is not written over it
+    private void put(TrigramIndex target, EmployeeSummaryDto employee) {
+        synchronized (changedWhileReading) {
+            if (!changedWhileReading.contains(employee.getId())) {
+                target.put(employee.getId(), employee.getName(), employee.getEmail(), employee.getCountry());
+            }
+        }
+    }
+
+    private void doneReading() {
+        reading = false;
+        changedWhileReading.clear();
+    }
+
+    private static void apply(TrigramIndex index, EmployeeChange change) {
+        if (change.isVisible()) {
+            EmployeeState state = change.getAfter();
+            index.put(change.getId(), state.getName(), state.getEmail(), state.getCountry());
+        } else {
+            index.remove(change.getId());
+        }
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    private static TrigramIndex newIndex() {
+        return new TrigramIndex(NAME_WEIGHT, EMAIL_WEIGHT, COUNTRY_WEIGHT);
+    }
+}
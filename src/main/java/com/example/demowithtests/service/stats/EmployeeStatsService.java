@@ -0,0 +1,18 @@
+package com.example.demowithtests.service.stats;
+
+import com.example.demowithtests.dto.stats.EmployeeStatsDto;
+
+public interface EmployeeStatsService {
+
+    /**
+     * Current counts, read from the counters without querying the database.
+     */
+    EmployeeStatsDto getStats();
+
+    /**
+     * Recounts users with a GROUP BY and replaces the counters with the result.
+     *
+     * @return true if the counters had drifted from the table
+     */
+    boolean reconcile();
+}
@@ -0,0 +1,137 @@
+package com.example.demowithtests.service.stats;
+
+import com.example.demowithtests.dto.stats.EmployeeStatsDto;
+import com.example.demowithtests.dto.stats.EmployeeStatsGroupDto;
+import com.example.demowithtests.repository.EmployeeRepository;
+import com.example.demowithtests.util.event.EmployeeChange;
+import com.example.demowithtests.util.event.EmployeeChangedEvent;
+import com.example.demowithtests.util.stats.EmployeeCounters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps {@link EmployeeCounters} of users up to date from the committed {@link EmployeeChangedEvent}s: a change
+ * takes away the row it replaced and counts the row it wrote.
+ * <p>
+ * Bulk statements do not read the rows they replace and bulk events carry no rows at all; both only mark the
+ * counters stale and the next stale check recounts. So does a recount that changes were committed during.
+ * Every reconciliation interval the counters are recounted anyway; a difference found by a recount that nothing
+ * made stale is drift, it is logged, counted in {@code employee.stats.drift} and corrected.
+ */
+@Slf4j
+@Service
+public class EmployeeStatsServiceBean implements EmployeeStatsService, SmartInitializingSingleton {
+    private final EmployeeRepository employeeRepository;
+    private final Counter driftCounter;
+    private final Object reconciling = new Object();
+
+    private EmployeeCounters counters = new EmployeeCounters();
+    private LocalDateTime reconciledAt;
+    private boolean stale;
+    // changes committed while the GROUP BY runs, applied again on top of its result. A change committed right
+    // before the GROUP BY may be counted twice, so such a result is stale and recounted by the next stale check.
+    private List<EmployeeChange> changedWhileCounting;
+    // a bulk event arrived while the GROUP BY runs, its result may already be stale
+    private boolean bulkWhileCounting;
+
+    public EmployeeStatsServiceBean(EmployeeRepository employeeRepository, MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.driftCounter = Counter.builder("employee.stats.drift").register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconcile();
+        log.info("Employee stats counted: employees = {}", counters.getEmployees());
+    }
+
+    @EventListener
+    public synchronized void onChanged(EmployeeChangedEvent event) {
+        if (event.isBulk()) {
+            stale = true;
+            if (changedWhileCounting != null) bulkWhileCounting = true;
+            return;
+        }
+        for (EmployeeChange change : event.getChanges()) {
+            if (changedWhileCounting != null) changedWhileCounting.add(change);
+            stale |= !apply(counters, change);
+        }
+    }
+
+    @Override
+    public synchronized EmployeeStatsDto getStats() {
+        return new EmployeeStatsDto(counters.getEmployees(), counters.getDeleted(), counters.getPrivateEmployees(),
+                counters.getConfirmed(), counters.getByCountry(), counters.getByGender(), reconciledAt);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.stats.reconcile-interval:600000}",
+            initialDelayString = "${app.stats.reconcile-interval:600000}")
+    public boolean reconcile() {
+        synchronized (reconciling) {
+            boolean staleBefore;
+            synchronized (this) {
+                staleBefore = stale;
+                stale = false;
+                changedWhileCounting = new ArrayList<>();
+                bulkWhileCounting = false;
+            }
+            EmployeeCounters recounted = new EmployeeCounters();
+            try {
+                for (EmployeeStatsGroupDto group : employeeRepository.countGroups()) {
+                    recounted.add(group.getCountry(), group.getGender(), group.getIsDeleted(), group.getIsPrivate(),
+                            group.getIsConfirmed(), group.getEmployees());
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    // recounted at the next stale check
+                    stale = true;
+                    changedWhileCounting = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                boolean staleSince = bulkWhileCounting || !changedWhileCounting.isEmpty();
+                for (EmployeeChange change : changedWhileCounting) {
+                    apply(recounted, change);
+                }
+                changedWhileCounting = null;
+                boolean drifted = !staleBefore && !staleSince && reconciledAt != null && !recounted.equals(counters);
+                if (drifted) {
+                    driftCounter.increment();
+                    log.warn("Employee stats drifted, corrected: counted = {}, recounted = {}", counters, recounted);
+                }
+                counters = recounted;
+                stale = staleSince;
+                reconciledAt = LocalDateTime.now();
+                return drifted;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.stats.stale-check-interval:5000}",
+            initialDelayString = "${app.stats.stale-check-interval:5000}")
+    public void reconcileIfStale() {
+        synchronized (this) {
+            if (!stale) return;
+        }
+        reconcile();
+    }
+
+    // false if the change could not be counted because the replaced row is not known
+    private static boolean apply(EmployeeCounters counters, EmployeeChange change) {
+        if (!change.isBeforeKnown()) return false;
+        if (change.getBefore() != null) counters.add(change.getBefore(), -1);
+        if (change.getAfter() != null) counters.add(change.getAfter(), 1);
+        return true;
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.demowithtests.util.analytics;
+
+import com.example.demowithtests.domain.Gender;
+import com.example.demowithtests.dto.analytics.EmployeeGroupCountDto;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar copy of the users attributes used for counting, addressed by employee id.
+ * <p>
+ * Country is dictionary-encoded into a short per row, gender into a byte, and every flag is a bitset; a
+ * presence bitset marks the ids that exist. Ids come from a sequence, so the columns are indexed by id
+ * directly and the few gaps cost a bit each. With {@code offHeap} the columns live in direct buffers and do
+ * not add to the heap the collector has to walk.
+ * <p>
+ * A query combines the bitsets 64 rows at a time and only decodes country and gender for the rows that pass,
+ * split over the fork-join pool. Thread-safe: queries share a read lock, changes take the write lock.
+ */
+public class EmployeeColumns {
+    private static final int LEAF_WORDS = 1024;
+    private static final int GENDER_CODES = Gender.values().length + 1;
+    private static final short NO_COUNTRY = 0;
+    private static final byte NO_GENDER = 0;
+
+    private final boolean offHeap;
+    private final ForkJoinPool pool;
+    // code 0 is "not set"
+    private final List<String> countries = new ArrayList<>(List.of(""));
+    private final Map<String, Short> countryCodes = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int words;
+    private ShortBuffer country;
+    private ByteBuffer gender;
+    private LongBuffer present;
+    private LongBuffer deleted;
+    private LongBuffer privateFlag;
+    private LongBuffer confirmed;
+    private int size;
+
+    public EmployeeColumns(boolean offHeap, ForkJoinPool pool) {
+        this.offHeap = offHeap;
+        this.pool = pool;
+        allocate(16);
+    }
+
+    /**
+     * Adds or replaces the row of {@code id}.
+     */
+    public void put(int id, String countryName, Gender genderValue, Boolean isDeleted, Boolean isPrivate,
+                    Boolean isConfirmed) {
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(id);
+            if (!get(present, id)) {
+                set(present, id, true);
+                size++;
+            }
+            country.put(id, countryCode(countryName));
+            gender.put(id, genderValue == null ? NO_GENDER : (byte) (genderValue.ordinal() + 1));
+            set(deleted, id, Boolean.TRUE.equals(isDeleted));
+            set(privateFlag, id, Boolean.TRUE.equals(isPrivate));
+            set(confirmed, id, Boolean.TRUE.equals(isConfirmed));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (id >= words * 64 || !get(present, id)) return;
+            set(present, id, false);
+            set(deleted, id, false);
+            set(privateFlag, id, false);
+            set(confirmed, id, false);
+            country.put(id, NO_COUNTRY);
+            gender.put(id, NO_GENDER);
+            size--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            allocate(16);
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(EmployeeFilter filter) {
+        return countBy(filter, Set.of()).stream().mapToLong(EmployeeGroupCountDto::getEmployees).sum();
+    }
+
+    /**
+     * Number of rows matching {@code filter} per combination of the dimension values, empty groups are left out.
+     */
+    public List<EmployeeGroupCountDto> countBy(EmployeeFilter filter, Set<EmployeeDimension> dimensions) {
+        boolean byCountry = dimensions.contains(EmployeeDimension.COUNTRY);
+        boolean byGender = dimensions.contains(EmployeeDimension.GENDER);
+        lock.readLock().lock();
+        try {
+            int countryCode = -1;
+            if (filter.getCountry() != null) {
+                Short code = countryCodes.get(filter.getCountry());
+                if (code == null) return new ArrayList<>();
+                countryCode = code;
+            }
+            int genderCode = filter.getGender() == null ? -1 : filter.getGender().ordinal() + 1;
+            Scan scan = new Scan(filter, countryCode, genderCode, byCountry, byGender,
+                    byCountry ? countries.size() : 1, 0, words);
+            long[] counts = pool.invoke(scan);
+
+            List<EmployeeGroupCountDto> groups = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) continue;
+                int c = i / GENDER_CODES;
+                int g = i % GENDER_CODES;
+                groups.add(new EmployeeGroupCountDto(
+                        byCountry && c != NO_COUNTRY ? countries.get(c) : null,
+                        byGender && g != NO_GENDER ? Gender.values()[g - 1] : null,
+                        counts[i]));
+            }
+            return groups;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private final class Scan extends RecursiveTask<long[]> {
+        private final EmployeeFilter filter;
+        private final int countryCode;
+        private final int genderCode;
+        private final boolean byCountry;
+        private final boolean byGender;
+        private final int countryGroups;
+        private final int from;
+        private final int to;
+
+        Scan(EmployeeFilter filter, int countryCode, int genderCode, boolean byCountry, boolean byGender,
+             int countryGroups, int from, int to) {
+            this.filter = filter;
+            this.countryCode = countryCode;
+            this.genderCode = genderCode;
+            this.byCountry = byCountry;
+            this.byGender = byGender;
+            this.countryGroups = countryGroups;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > LEAF_WORDS) {
+                int middle = (from + to) >>> 1;
+                Scan left = new Scan(filter, countryCode, genderCode, byCountry, byGender, countryGroups, from, middle);
+                Scan right = new Scan(filter, countryCode, genderCode, byCountry, byGender, countryGroups, middle, to);
+                left.fork();
+                long[] counts = right.compute();
+                long[] leftCounts = left.join();
+                for (int i = 0; i < counts.length; i++) counts[i] += leftCounts[i];
+                return counts;
+            }
+            long[] counts = new long[countryGroups * GENDER_CODES];
+            boolean perRow = byCountry || byGender || countryCode >= 0 || genderCode >= 0;
+            for (int word = from; word < to; word++) {
+                long bits = present.get(word);
+                bits &= mask(deleted, word, filter.getIsDeleted());
+                bits &= mask(privateFlag, word, filter.getIsPrivate());
+                bits &= mask(confirmed, word, filter.getIsConfirmed());
+                if (bits == 0) continue;
+                if (!perRow) {
+                    counts[0] += Long.bitCount(bits);
+                    continue;
+                }
+                while (bits != 0) {
+                    int id = word * 64 + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    int c = country.get(id);
+                    int g = gender.get(id);
+                    if (countryCode >= 0 && c != countryCode) continue;
+                    if (genderCode >= 0 && g != genderCode) continue;
+                    counts[(byCountry ? c : 0) * GENDER_CODES + (byGender ? g : 0)]++;
+                }
+            }
+            return counts;
+        }
+    }
+
+    private static long mask(LongBuffer flags, int word, Boolean value) {
+        if (value == null) return -1L;
+        return value ? flags.get(word) : ~flags.get(word);
+    }
+
+    private short countryCode(String name) {
+        if (name == null) return NO_COUNTRY;
+        Short code = countryCodes.get(name);
+        if (code == null) {
+            if (countries.size() > Short.MAX_VALUE) throw new IllegalStateException("Too many distinct countries");
+            code = (short) countries.size();
+            countries.add(name);
+            countryCodes.put(name, code);
+        }
+        return code;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < words * 64) return;
+        int needed = id / 64 + 1;
+        int grown = Math.max(needed, words * 2);
+        ShortBuffer oldCountry = country;
+        ByteBuffer oldGender = gender;
+        LongBuffer[] oldFlags = {present, deleted, privateFlag, confirmed};
+        allocate(grown);
+        // duplicates, so the positions of the columns stay at 0
+        country.duplicate().put(oldCountry.duplicate());
+        gender.duplicate().put(oldGender.duplicate());
+        LongBuffer[] newFlags = {present, deleted, privateFlag, confirmed};
+        for (int i = 0; i < newFlags.length; i++) {
+            newFlags[i].duplicate().put(oldFlags[i].duplicate());
+        }
+    }
+
+    private void allocate(int words) {
+        this.words = words;
+        int rows = words * 64;
+        country = buffer(rows * Short.BYTES).asShortBuffer();
+        gender = buffer(rows);
+        present = buffer(words * Long.BYTES).asLongBuffer();
+        deleted = buffer(words * Long.BYTES).asLongBuffer();
+        privateFlag = buffer(words * Long.BYTES).asLongBuffer();
+        confirmed = buffer(words * Long.BYTES).asLongBuffer();
+    }
+
+    private ByteBuffer buffer(int bytes) {
+        return offHeap ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes);
+    }
+
+    private static boolean get(LongBuffer bits, int id) {
+        return (bits.get(id >>> 6) & (1L << id)) != 0;
+    }
+
+    private static void set(LongBuffer bits, int id, boolean value) {
+        int word = id >>> 6;
+        long current = bits.get(word);
+        bits.put(word, value ? current | (1L << id) : current & ~(1L << id));
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.demowithtests.util.analytics;
+
+public enum EmployeeDimension {
+    COUNTRY, GENDER
+}
@@ -0,0 +1,21 @@
+package com.example.demowithtests.util.analytics;
+
+import com.example.demowithtests.domain.Gender;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Conditions on the analytics snapshot, null means any value. A flag that is not set in the database counts
+ * as false, the same as {@code is_deleted is null or is_deleted = false} in the repository queries.
+ */
+@Value
+@Builder
+public class EmployeeFilter {
+    public static final EmployeeFilter ANY = EmployeeFilter.builder().build();
+
+    Boolean isDeleted;
+    Boolean isPrivate;
+    Boolean isConfirmed;
+    String country;
+    Gender gender;
+}
@@ -0,0 +1,29 @@
+package com.example.demowithtests.util.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spreads permits evenly over time, shared by all threads that use it.
+ * A rate of zero or less means no limit.
+ */
+public class RateLimiter {
+    private final long intervalNanos;
+    private long nextFreeNanos = System.nanoTime();
+
+    public RateLimiter(int permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / permitsPerSecond : 0;
+    }
+
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0) return;
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            // an idle limiter does not save up permits for a burst
+            if (nextFreeNanos < now) nextFreeNanos = now;
+            waitNanos = nextFreeNanos - now;
+            nextFreeNanos += intervalNanos;
+        }
+        if (waitNanos > 0) TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+}
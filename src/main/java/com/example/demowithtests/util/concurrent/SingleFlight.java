@@ -0,0 +1,82 @@
+package com.example.demowithtests.util.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls of one operation. At most one run is in progress; a call arriving meanwhile waits
+ * for the next run and shares its result with every other call that arrived before that run started. So the
+ * number of runs depends on how long a run takes, not on the number of callers, and every caller still gets the
+ * result of a run that started after it called.
+ * <p>
+ * Only for operations whose result does not depend on the caller. Failures are shared like results.
+ */
+public class SingleFlight<T> {
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private CompletableFuture<T> running;
+    private CompletableFuture<T> next;
+
+    public T execute(Supplier<T> operation) {
+        CompletableFuture<T> flight;
+        CompletableFuture<T> previous = null;
+        CompletableFuture<T> joined = null;
+        synchronized (this) {
+            if (running == null) {
+                flight = running = new CompletableFuture<>();
+            } else if (next == null) {
+                // runs once the current run is done, see finish()
+                flight = next = new CompletableFuture<>();
+                previous = running;
+            } else {
+                flight = joined = next;
+                coalesced.incrementAndGet();
+            }
+        }
+        if (joined != null) return await(joined);
+        if (previous != null) previous.handle((result, failure) -> null).join();
+        executions.incrementAndGet();
+        try {
+            T result = operation.get();
+            finish(flight);
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            finish(flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Calls that were served by another call's run.
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public long getExecutions() {
+        return executions.get();
+    }
+
+    // the waiting run becomes the current one before anybody can see no run in progress
+    private synchronized void finish(CompletableFuture<T> flight) {
+        if (running == flight) {
+            running = next;
+            next = null;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+}
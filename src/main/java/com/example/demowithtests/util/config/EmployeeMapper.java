@@ -1,12 +1,17 @@
 package com.example.demowithtests.util.config;
 
 
+import com.example.demowithtests.domain.ArchivedEmployee;
 import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.dto.address.AddressReadDto;
+import com.example.demowithtests.dto.employee.ArchivedEmployeeReadDto;
 import com.example.demowithtests.dto.employee.EmployeeCreateDto;
 import com.example.demowithtests.dto.employee.EmployeeReadDto;
 import org.mapstruct.Mapper;
 import org.mapstruct.factory.Mappers;
 
+import java.util.Set;
+
 @Mapper(componentModel = "spring")
 public interface EmployeeMapper {
     EmployeeMapper INSTANCE = Mappers.getMapper(EmployeeMapper.class);
@@ -15,6 +20,10 @@ public interface EmployeeMapper {
     //    EmployeeCreateDto employeeToEmployeeCreateDTO(Employee employee);
     //    EmployeePatchDto employeeToEmployeePatchDTO(Employee employee);
     Employee employeeCreateDtoToEmployee(EmployeeCreateDto employeeCreateDto);
+    ArchivedEmployeeReadDto archivedEmployeeToReadDto(ArchivedEmployee archivedEmployee);
+    EmployeeReadDto copy(EmployeeReadDto employeeReadDto);
+    Set<AddressReadDto> copy(Set<AddressReadDto> addressReadDtos);
+    AddressReadDto copy(AddressReadDto addressReadDto);
     //    Employee employeeReadDTOToEmployee(EmployeeCreateDto employeeReadDto);
     //  Employee employeePutDtoToEmployee(EmployeeCreateDto employeePutDto);
 }
\ No newline at end of file
@@ -30,11 +30,18 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .httpBasic()
                 .and()
                 .authorizeRequests()
+                .antMatchers("/api/users/archive/**").hasRole("ADMIN")
                 .antMatchers(HttpMethod.GET, "/api/users/**").hasRole("USER")
                 .antMatchers(HttpMethod.POST, "/api/users").hasRole("ADMIN")
+                .antMatchers(HttpMethod.POST, "/api/users/batch").hasRole("ADMIN")
+                .antMatchers(HttpMethod.POST, "/api/users/*/restore").hasRole("ADMIN")
                 .antMatchers(HttpMethod.PUT, "/api/users/**").hasRole("ADMIN")
                 .antMatchers(HttpMethod.PATCH, "/api/users/**").hasRole("ADMIN")
                 .antMatchers(HttpMethod.DELETE, "/api/users/**").hasRole("ADMIN")
+                .antMatchers("/api/jobs/**").hasRole("ADMIN")
+                .antMatchers("/api/mail/**").hasRole("ADMIN")
+                .antMatchers("/actuator/health").permitAll()
+                .antMatchers("/actuator/**").hasRole("ADMIN")
                 .and()
                 .csrf().disable()
                 .formLogin().disable();
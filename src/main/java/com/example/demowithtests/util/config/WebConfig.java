@@ -0,0 +1,18 @@
+package com.example.demowithtests.util.config;
+
+import com.example.demowithtests.util.etag.WeakETagInterceptor;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@AllArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    private final WeakETagInterceptor weakETagInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(weakETagInterceptor);
+    }
+}
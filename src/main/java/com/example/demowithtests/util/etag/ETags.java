@@ -0,0 +1,58 @@
+package com.example.demowithtests.util.etag;
+
+import com.example.demowithtests.util.exception.PreconditionFailedException;
+
+/**
+ * Entity tags of the employee endpoints. A strong tag is the version of one employee, a weak tag marks a
+ * page that is equivalent, not byte-identical, for as long as the tag holds.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String strong(long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String weak(String value) {
+        return "W/\"" + value + "\"";
+    }
+
+    /**
+     * Weak comparison as required for If-None-Match: {@code W/"1"} and {@code "1"} match.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        if (ifNoneMatch.trim().equals("*")) return true;
+        String opaque = opaque(etag);
+        for (String tag : ifNoneMatch.split(",")) {
+            if (opaque(tag.trim()).equals(opaque)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Version expected by an If-Match header, compared strongly.
+     *
+     * @return null if there is no condition, for an absent header or {@code *}
+     * @throws PreconditionFailedException if the header is not one strong tag of a version, such a tag can not
+     *                                     match any employee
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) return null;
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match must be one strong entity tag, got " + ifMatch);
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match any version, got " + ifMatch);
+        }
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
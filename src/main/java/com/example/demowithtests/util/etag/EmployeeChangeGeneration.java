@@ -0,0 +1,34 @@
+package com.example.demowithtests.util.etag;
+
+import com.example.demowithtests.util.event.EmployeeChangedEvent;
+import com.example.demowithtests.util.event.EmployeeNamesChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of committed users changes seen by this instance, the weak entity tag of the employee pages. Any
+ * committed change makes every earlier tag stale. The tag starts with an id of the running instance, so it is
+ * never reused after a restart; behind a load balancer each instance has its own tags.
+ */
+@Component
+public class EmployeeChangeGeneration {
+    private final String instance = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong generation = new AtomicLong();
+
+    @EventListener
+    public void onChanged(EmployeeChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    public void onNamesChanged(EmployeeNamesChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    public String etag() {
+        return ETags.weak(instance + "-" + generation.get());
+    }
+}
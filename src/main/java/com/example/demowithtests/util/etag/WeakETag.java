@@ -0,0 +1,15 @@
+package com.example.demowithtests.util.etag;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET handler whose response only depends on the users rows, so it can be revalidated against the
+ * {@link EmployeeChangeGeneration} by the {@link WeakETagInterceptor}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WeakETag {
+}
@@ -0,0 +1,45 @@
+package com.example.demowithtests.util.etag;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Revalidates the GET handlers marked with {@link WeakETag} before they run: a matching If-None-Match is
+ * answered with 304 without querying, mapping or serializing. The tag is taken before the handler queries, so
+ * a change committed meanwhile makes it stale instead of being hidden behind it.
+ */
+@Component
+public class WeakETagInterceptor implements HandlerInterceptor {
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private final EmployeeChangeGeneration generation;
+
+    public WeakETagInterceptor(EmployeeChangeGeneration generation) {
+        this.generation = generation;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod) || !((HandlerMethod) handler).hasMethodAnnotation(WeakETag.class)
+                || !(HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod()))) {
+            return true;
+        }
+        String etag = generation.etag();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        // clients may keep the page, but have to revalidate it
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        if (ETags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return false;
+        }
+        return true;
+    }
+}
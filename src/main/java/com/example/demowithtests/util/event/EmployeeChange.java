@@ -0,0 +1,63 @@
+package com.example.demowithtests.util.event;
+
+import lombok.Value;
+
+/**
+ * One written users row with its state before and after the write.
+ * Published while the transaction is still open, see {@link EmployeeChangeCollector}.
+ */
+@Value
+public class EmployeeChange {
+    public enum Type {CREATED, UPDATED, REMOVED}
+
+    Integer id;
+    Type type;
+    // null when created, and when a bulk statement wrote the row without reading it first
+    EmployeeState before;
+    // null when removed
+    EmployeeState after;
+
+    public static EmployeeChange created(Integer id, EmployeeState after) {
+        return new EmployeeChange(id, Type.CREATED, null, after);
+    }
+
+    public static EmployeeChange updated(Integer id, EmployeeState before, EmployeeState after) {
+        return new EmployeeChange(id, Type.UPDATED, before, after);
+    }
+
+    public static EmployeeChange removed(Integer id, EmployeeState before) {
+        return new EmployeeChange(id, Type.REMOVED, before, null);
+    }
+
+    public boolean isBeforeKnown() {
+        return type == Type.CREATED || before != null;
+    }
+
+    /**
+     * The row exists after the change and is not soft-deleted.
+     */
+    public boolean isActive() {
+        return after != null && after.isActive();
+    }
+
+    /**
+     * The row exists after the change and is shown by getById.
+     */
+    public boolean isVisible() {
+        return after != null && after.isVisible();
+    }
+
+    /**
+     * Combines this change with a later change of the same row into one.
+     *
+     * @return null if the row was created and removed again
+     */
+    public EmployeeChange then(EmployeeChange next) {
+        boolean existedBefore = type != Type.CREATED;
+        boolean existsAfter = next.type != Type.REMOVED;
+        if (existedBefore) {
+            return new EmployeeChange(id, existsAfter ? Type.UPDATED : Type.REMOVED, before, next.after);
+        }
+        return existsAfter ? created(id, next.after) : null;
+    }
+}
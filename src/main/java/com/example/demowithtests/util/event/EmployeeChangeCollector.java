@@ -0,0 +1,84 @@
+package com.example.demowithtests.util.event;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the {@link EmployeeChange}s of a transaction and publishes them as one {@link EmployeeChangedEvent}
+ * after commit; a rollback drops them. The changes of a row are merged into one, so a transaction that touches
+ * a row many times still holds one change for it. Outside of a transaction the change is published at once.
+ * <p>
+ * A transaction that writes more than {@code maxChanges} rows drops what it collected and publishes
+ * {@link EmployeeChangedEvent#bulk()} instead, so the memory of a bulk write does not grow with the table.
+ */
+@Component
+public class EmployeeChangeCollector {
+    private final ApplicationEventPublisher publisher;
+    private final int maxChanges;
+
+    public EmployeeChangeCollector(ApplicationEventPublisher publisher,
+                                   @Value("${app.events.max-changes-per-transaction:10000}") int maxChanges) {
+        this.publisher = publisher;
+        this.maxChanges = maxChanges;
+    }
+
+    @EventListener
+    public void collect(EmployeeChange change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publisher.publishEvent(new EmployeeChangedEvent(List.of(change)));
+            return;
+        }
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new Changes();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+        changes.add(change);
+    }
+
+    private class Changes implements TransactionSynchronization {
+        // null once the transaction wrote too many rows
+        private Map<Integer, EmployeeChange> byId = new LinkedHashMap<>();
+
+        void add(EmployeeChange change) {
+            if (byId == null) return;
+            EmployeeChange previous = byId.get(change.getId());
+            EmployeeChange merged = previous == null ? change : previous.then(change);
+            if (merged == null) byId.remove(change.getId());
+            else byId.put(change.getId(), merged);
+            if (byId.size() > maxChanges) byId = null;
+        }
+
+        // a REQUIRES_NEW transaction collects its own changes
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(EmployeeChangeCollector.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(EmployeeChangeCollector.this, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeChangeCollector.this);
+            if (status != STATUS_COMMITTED) return;
+            if (byId == null) {
+                publisher.publishEvent(EmployeeChangedEvent.bulk());
+            } else if (!byId.isEmpty()) {
+                publisher.publishEvent(new EmployeeChangedEvent(new ArrayList<>(byId.values())));
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demowithtests.util.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Committed changes of the users table, one event per transaction. Listeners run on the committing thread.
+ * <p>
+ * A transaction that wrote more rows than {@link EmployeeChangeCollector} keeps is published as a bulk event
+ * without changes: any row may have changed, listeners reload or recount what they keep.
+ */
+@Value
+@AllArgsConstructor
+public class EmployeeChangedEvent {
+    List<EmployeeChange> changes;
+    boolean bulk;
+
+    public EmployeeChangedEvent(List<EmployeeChange> changes) {
+        this(changes, false);
+    }
+
+    public static EmployeeChangedEvent bulk() {
+        return new EmployeeChangedEvent(List.of(), true);
+    }
+}
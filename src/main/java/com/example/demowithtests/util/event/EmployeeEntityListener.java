@@ -0,0 +1,46 @@
+package com.example.demowithtests.util.event;
+
+import com.example.demowithtests.domain.Employee;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Instantiated by Hibernate through Spring's bean container. The state read from the database is kept on the
+ * entity, so an update or remove can tell what it replaced. Bulk JPQL and native statements bypass the
+ * listener, so those write paths publish {@link EmployeeChange}s themselves.
+ */
+public class EmployeeEntityListener {
+    private final ApplicationEventPublisher publisher;
+
+    public EmployeeEntityListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostLoad
+    public void loaded(Employee employee) {
+        employee.setLoadedState(EmployeeState.of(employee));
+    }
+
+    @PostPersist
+    public void persisted(Employee employee) {
+        EmployeeState state = EmployeeState.of(employee);
+        publisher.publishEvent(EmployeeChange.created(employee.getId(), state));
+        employee.setLoadedState(state);
+    }
+
+    @PostUpdate
+    public void updated(Employee employee) {
+        EmployeeState state = EmployeeState.of(employee);
+        publisher.publishEvent(EmployeeChange.updated(employee.getId(), employee.getLoadedState(), state));
+        employee.setLoadedState(state);
+    }
+
+    @PostRemove
+    public void removed(Employee employee) {
+        publisher.publishEvent(EmployeeChange.removed(employee.getId(), employee.getLoadedState()));
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demowithtests.util.event;
+
+import lombok.Value;
+
+/**
+ * Committed rename of every employee with {@code fromId < id <= toId} by one bulk statement, published instead of
+ * an {@link EmployeeChange} per row. Nothing but the name and the version of these rows changed, so listeners
+ * that do not look at names ignore it. Published on the thread that committed the chunk.
+ */
+@Value
+public class EmployeeNamesChangedEvent {
+    Integer fromId;
+    Integer toId;
+}
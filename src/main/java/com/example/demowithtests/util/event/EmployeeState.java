@@ -0,0 +1,38 @@
+package com.example.demowithtests.util.event;
+
+import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.domain.Gender;
+import lombok.Value;
+
+/**
+ * Values of a users row as seen by the change listeners.
+ */
+@Value
+public class EmployeeState {
+    String name;
+    String email;
+    String country;
+    Gender gender;
+    Boolean isDeleted;
+    Boolean isPrivate;
+    Boolean isConfirmed;
+
+    public static EmployeeState of(Employee employee) {
+        return new EmployeeState(employee.getName(), employee.getEmail(), employee.getCountry(), employee.getGender(),
+                employee.getIsDeleted(), employee.getIsPrivate(), employee.getIsConfirmed());
+    }
+
+    /**
+     * Not soft-deleted.
+     */
+    public boolean isActive() {
+        return !Boolean.TRUE.equals(isDeleted);
+    }
+
+    /**
+     * Shown by getById: active, explicitly not private and confirmed.
+     */
+    public boolean isVisible() {
+        return isActive() && Boolean.FALSE.equals(isPrivate) && Boolean.TRUE.equals(isConfirmed);
+    }
+}
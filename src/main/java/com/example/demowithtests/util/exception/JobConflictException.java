@@ -0,0 +1,7 @@
+package com.example.demowithtests.util.exception;
+
+public class JobConflictException extends RuntimeException {
+    public JobConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demowithtests.util.mail;
+
+import com.example.demowithtests.domain.Employee;
+
+public final class ConfirmationMail {
+    public static final String SUBJECT = "Confirmation";
+
+    private ConfirmationMail() {
+    }
+
+    public static String text(Employee e) {
+//                    http://localhost:8087/api/users/1/confirm
+        return "    Пожалуйста, нажмите на ссылку ниже, чтобы подтвердить свою регистрацию:\n" +
+//                            "<a href=\"https://ваш-сервер.com/activate?userId=12345">Подтвердить регистрацию</a>"
+                "    <a href=\"http://localhost:8087/api/users/" + e.getId() + "/confirmed" +
+                ">Подтвердить регистрацию</a>\n" +
+                "Если вы не регистрировались на нашем сайте, проигнорируйте это сообщение.\n";
+    }
+}
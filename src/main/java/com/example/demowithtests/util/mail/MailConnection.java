@@ -0,0 +1,14 @@
+package com.example.demowithtests.util.mail;
+
+import javax.mail.MessagingException;
+
+/**
+ * Open connection to the mail server, reused for a whole batch of messages.
+ */
+public interface MailConnection extends AutoCloseable {
+
+    void send(String recipient, String subject, String text) throws MessagingException;
+
+    @Override
+    void close();
+}
@@ -0,0 +1,101 @@
+package com.example.demowithtests.util.mail;
+
+import com.example.demowithtests.domain.MailStatus;
+import com.example.demowithtests.domain.OutboxMail;
+import com.example.demowithtests.repository.MailOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Drains the mail outbox in batches. A batch is claimed by switching it to SENDING in a short transaction,
+ * sent over one SMTP connection outside of any transaction and recorded in a second one, so no row lock or
+ * database connection is held while the server answers. A mail left SENDING because the recording failed is
+ * not sent again, it may already have been delivered. Failed mails are rescheduled by {@link MailRetryPolicy}.
+ * Campaign mails are left to {@link com.example.demowithtests.service.mail.MailCampaignService}.
+ */
+@Slf4j
+@Component
+public class MailOutboxDispatcher {
+    private final MailOutboxRepository mailOutboxRepository;
+    private final Mailer mailer;
+    private final TransactionTemplate transactionTemplate;
+    private final MailRetryPolicy retryPolicy;
+    private final int batchSize;
+
+    public MailOutboxDispatcher(MailOutboxRepository mailOutboxRepository,
+                                Mailer mailer,
+                                TransactionTemplate transactionTemplate,
+                                MailRetryPolicy retryPolicy,
+                                @Value("${app.mail.outbox.batch-size:50}") int batchSize) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailer = mailer;
+        this.transactionTemplate = transactionTemplate;
+        this.retryPolicy = retryPolicy;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval:5000}")
+    public void dispatch() {
+        int sent;
+        do {
+            sent = dispatchBatch();
+        } while (sent == batchSize);
+    }
+
+    /**
+     * @return number of mails taken from the outbox
+     */
+    public int dispatchBatch() {
+        List<OutboxMail> claimed = claim();
+        if (claimed.isEmpty()) return 0;
+        MailConnection connection = null;
+        try {
+            for (OutboxMail mail : claimed) {
+                try {
+                    if (connection == null) connection = mailer.connect();
+                    connection.send(mail.getRecipient(), mail.getSubject(), mail.getBody());
+                    mail.setStatus(MailStatus.SENT);
+                    mail.setSentAt(LocalDateTime.now());
+                    mail.setAttempts(mail.getAttempts() + 1);
+                } catch (SendFailedException e) {
+                    // rejected recipient, the connection itself is fine
+                    retryPolicy.failed(mail, e);
+                } catch (MessagingException e) {
+                    retryPolicy.failed(mail, e);
+                    if (connection == null) {
+                        log.warn("dispatchBatch() - mail server is not reachable: {}", e.getMessage());
+                        claimed.stream().filter(other -> other.getStatus() == MailStatus.SENDING)
+                                .forEach(other -> retryPolicy.failed(other, e));
+                        break;
+                    }
+                    // the next mail gets a new connection
+                    connection.close();
+                    connection = null;
+                }
+            }
+        } finally {
+            if (connection != null) connection.close();
+        }
+        transactionTemplate.executeWithoutResult(status -> mailOutboxRepository.saveAll(claimed));
+        return claimed.size();
+    }
+
+    private List<OutboxMail> claim() {
+        List<OutboxMail> claimed = transactionTemplate.execute(status -> {
+            List<OutboxMail> due = mailOutboxRepository.findDue(MailStatus.PENDING, LocalDateTime.now(),
+                    PageRequest.of(0, batchSize));
+            due.forEach(mail -> mail.setStatus(MailStatus.SENDING));
+            return due;
+        });
+        return claimed == null ? List.of() : claimed;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demowithtests.util.mail;
+
+import com.example.demowithtests.domain.MailStatus;
+import com.example.demowithtests.domain.OutboxMail;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Retry rules shared by everything that delivers outbox mails: exponential backoff
+ * until max-attempts is reached, then the mail is given up as FAILED.
+ */
+@Slf4j
+@Component
+public class MailRetryPolicy {
+    // size of mail_outbox.last_error
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final int maxAttempts;
+    private final Duration backoff;
+
+    public MailRetryPolicy(@Value("${app.mail.outbox.max-attempts:5}") int maxAttempts,
+                           @Value("${app.mail.outbox.backoff:30s}") Duration backoff) {
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+    }
+
+    public void failed(OutboxMail mail, Exception e) {
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        String error = String.valueOf(e.getMessage());
+        mail.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        if (attempts >= maxAttempts) {
+            mail.setStatus(MailStatus.FAILED);
+            log.error("failed() - giving up on mail {} to {} after {} attempts", mail.getId(), mail.getRecipient(), attempts);
+        } else {
+            mail.setStatus(MailStatus.PENDING);
+            mail.setNextAttemptAt(LocalDateTime.now().plus(backoff.multipliedBy(1L << (attempts - 1))));
+        }
+    }
+}
@@ -1,14 +1,12 @@
 package com.example.demowithtests.util.mail;
 
-import com.example.demowithtests.domain.Employee;
-
-import java.util.function.Function;
+import javax.mail.MessagingException;
 
 public interface Mailer /*extends Function*/ {
     //    void apply(Object o);
-    void send(Employee e);
-}
-
-
-
 
+    /**
+     * Opens one connection to the mail server that can send many messages.
+     */
+    MailConnection connect() throws MessagingException;
+}
@@ -1,68 +1,111 @@
 package com.example.demowithtests.util.mail;
 
-import com.example.demowithtests.domain.Employee;
-import com.example.demowithtests.util.exception.EmailSendingException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.mail.*;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public final class SmtpMailer implements Mailer {
-    private final Properties props;
-    // Настройки для подключения к SMTP-серверу Gmail
-    private final String host = "smtp.gmail.com";
-    private final String username = "hilleljavaee2023@gmail.com";
-    private final String password = "qdrjzliussaasliv";
-    private final int port = 587;
+    // Одна сессия на всё приложение, соединения открываются через connect()
+    private final Session session;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final boolean auth;
+    private final Timer connectTimer;
+    private final Timer sentTimer;
+    private final Timer failedTimer;
 
-    public SmtpMailer() {
+    public SmtpMailer(MeterRegistry meterRegistry,
+                      @Value("${app.mail.host:smtp.gmail.com}") String host,
+                      @Value("${app.mail.port:587}") int port,
+                      @Value("${app.mail.username}") String username,
+                      @Value("${app.mail.password}") String password,
+                      @Value("${app.mail.auth:true}") boolean auth,
+                      @Value("${app.mail.starttls:true}") boolean starttls) {
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.auth = auth;
+        this.connectTimer = Timer.builder("mail.smtp.connect").register(meterRegistry);
+        this.sentTimer = sendTimer(meterRegistry, "success");
+        this.failedTimer = sendTimer(meterRegistry, "failure");
         // Создаем свойства для подключения
-        this.props = new Properties();
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
+        Properties props = new Properties();
+        props.put("mail.smtp.auth", String.valueOf(auth));
+        props.put("mail.smtp.starttls.enable", String.valueOf(starttls));
         props.put("mail.smtp.host", host);
-        props.put("mail.smtp.port", port);
+        props.put("mail.smtp.port", String.valueOf(port));
+        props.put("mail.smtp.connectiontimeout", "10000");
+        props.put("mail.smtp.timeout", "10000");
+        this.session = Session.getInstance(props);
     }
 
-    //    @Override
-    //    public void apply(Object o) {
-    //        send((String) o);
-    //    }
-
     @Override
-    public void send(Employee e) {
-// Создаем сессию
-        Session session = Session.getInstance(props,
-                new javax.mail.Authenticator() {
-                    protected PasswordAuthentication getPasswordAuthentication() {
-                        return new PasswordAuthentication(username, password);
-                    }
-                });
-        // Создаем письмо
-        Message message = new MimeMessage(session);
+    public MailConnection connect() throws MessagingException {
+        long start = System.nanoTime();
+        Transport transport = session.getTransport("smtp");
         try {
-            message.setFrom(new InternetAddress(username));
-            message.setRecipients(Message.RecipientType.TO,
-                    InternetAddress.parse(e.getEmail()));
-            message.setSubject("Confirmation");
-            message.setText(
-
-//                    http://localhost:8087/api/users/1/confirm
-                    "    Пожалуйста, нажмите на ссылку ниже, чтобы подтвердить свою регистрацию:\n" +
-//                            "<a href=\"https://ваш-сервер.com/activate?userId=12345">Подтвердить регистрацию</a>"
-                            "    <a href=\"http://localhost:8087/api/users/" + e.getId() + "/confirmed" +
-                            ">Подтвердить регистрацию</a>\n" +
-                            "Если вы не регистрировались на нашем сайте, проигнорируйте это сообщение.\n");
-            // Отправляем письмо
-            Transport.send(message);
-            System.out.println("Email sent successfully!");
-        } catch (MessagingException exception) {
-            throw new EmailSendingException("Sending mail from " + username + " to " + e.getEmail() + " failed.");
+            if (auth) {
+                transport.connect(host, port, username, password);
+            } else {
+                transport.connect(host, port, null, null);
+            }
+        } finally {
+            connectTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
+        return new SmtpConnection(transport);
+    }
 
+    private static Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("mail.smtp.send")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
+    private class SmtpConnection implements MailConnection {
+        private final Transport transport;
+
+        private SmtpConnection(Transport transport) {
+            this.transport = transport;
+        }
+
+        @Override
+        public void send(String recipient, String subject, String text) throws MessagingException {
+            // Создаем письмо
+            Message message = new MimeMessage(session);
+            message.setFrom(new InternetAddress(username));
+            message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(recipient));
+            message.setSubject(subject);
+            message.setText(text);
+            message.saveChanges();
+            long start = System.nanoTime();
+            try {
+                transport.sendMessage(message, message.getAllRecipients());
+                sentTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } catch (MessagingException e) {
+                failedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                transport.close();
+            } catch (MessagingException ignored) {
+                // the connection is dropped anyway
+            }
+        }
+    }
 }
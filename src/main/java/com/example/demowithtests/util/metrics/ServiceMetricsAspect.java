@@ -0,0 +1,48 @@
+package com.example.demowithtests.util.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every call of {@link com.example.demowithtests.service.EmployeeService} and counts its exceptions
+ * (NoSuchEmployeeException, ResourceIsPrivateException, ...) per method.
+ */
+@Aspect
+@Component
+@AllArgsConstructor
+public class ServiceMetricsAspect {
+    static final String TIMER = "employee.service";
+    static final String EXCEPTIONS = "employee.service.exceptions";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(* com.example.demowithtests.service.EmployeeService+.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            Counter.builder(EXCEPTIONS)
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .register(meterRegistry)
+                    .increment();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TIMER)
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
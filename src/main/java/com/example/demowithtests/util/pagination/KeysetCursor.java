@@ -0,0 +1,35 @@
+package com.example.demowithtests.util.pagination;
+
+import com.example.demowithtests.util.exception.BadRequestException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a row in (name, id) order. Clients get it as an opaque URL-safe token.
+ * users.name is NOT NULL, so seek queries reach every row the offset queries return.
+ */
+@Value
+public class KeysetCursor {
+    public static final KeysetCursor FIRST = new KeysetCursor("", 0);
+
+    String name;
+    Integer id;
+
+    public String encode() {
+        String raw = id + ":" + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) return FIRST;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new KeysetCursor(raw.substring(separator + 1), Integer.valueOf(raw.substring(0, separator)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid page cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.demowithtests.util.search;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Case-insensitive substring search over a few text fields per document.
+ * <p>
+ * Every trigram of every field points to a sorted array of the ids that contain it. A query is answered by
+ * intersecting the postings of its trigrams, starting with the shortest, and checking the few candidates
+ * against the stored text. Queries shorter than {@link #MIN_QUERY_LENGTH} have no trigram and find nothing, there
+ * is no scan over all documents. Only the requested number of best hits is kept and sorted, the rest is counted.
+ * <p>
+ * Memory is about 4 bytes per distinct trigram of a document plus the stored text. Thread-safe.
+ */
+public class TrigramIndex {
+    public static final int MIN_QUERY_LENGTH = 3;
+    private static final Comparator<Hit> BEST_FIRST =
+            Comparator.comparingInt(Hit::getScore).reversed().thenComparingInt(Hit::getId);
+
+    private final int[] weights;
+    private final Map<Integer, String[]> documents = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param weights relevance weight of each field, the number of weights is the number of fields
+     */
+    public TrigramIndex(int... weights) {
+        this.weights = weights.clone();
+    }
+
+    /**
+     * Adds or replaces a document. Null fields are indexed as empty.
+     */
+    public void put(int id, String... fields) {
+        if (fields.length != weights.length)
+            throw new IllegalArgumentException("Expected " + weights.length + " fields, got " + fields.length);
+        String[] document = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            document[i] = normalize(fields[i]);
+        }
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.put(id, document);
+            if (previous != null) {
+                for (long trigram : trigrams(previous)) {
+                    Postings ids = postings.get(trigram);
+                    if (ids.remove(id) && ids.size == 0) postings.remove(trigram);
+                }
+            }
+            for (long trigram : trigrams(document)) {
+                postings.computeIfAbsent(trigram, key -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.remove(id);
+            if (previous == null) return;
+            for (long trigram : trigrams(previous)) {
+                Postings ids = postings.get(trigram);
+                if (ids.remove(id) && ids.size == 0) postings.remove(trigram);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The {@code limit} best documents with at least one field of {@code fieldMask} containing {@code query},
+     * best first, and the number of all of them. A field scores its weight times 3 for an exact match, 2 for a
+     * prefix and 1 for any other substring; equal scores are ordered by id.
+     *
+     * @param fieldMask bit {@code i} selects field {@code i}
+     */
+    public Hits search(String query, int fieldMask, int limit) {
+        String text = normalize(query);
+        if (text.length() < MIN_QUERY_LENGTH) return new Hits(List.of(), 0);
+        // worst kept hit on top, replaced by every better one
+        PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(Math.max(limit, 1), 1024), BEST_FIRST.reversed());
+        int total = 0;
+        lock.readLock().lock();
+        try {
+            for (int id : candidates(text)) {
+                int score = score(documents.get(id), text, fieldMask);
+                if (score == 0) continue;
+                total++;
+                if (best.size() < limit) {
+                    best.add(new Hit(id, score));
+                } else if (limit > 0 && isBetter(score, id, best.peek())) {
+                    best.poll();
+                    best.add(new Hit(id, score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(BEST_FIRST);
+        return new Hits(hits, total);
+    }
+
+    private static boolean isBetter(int score, int id, Hit hit) {
+        return score > hit.getScore() || score == hit.getScore() && id < hit.getId();
+    }
+
+    private int[] candidates(String text) {
+        long[] trigrams = trigrams(new String[]{text});
+        Postings[] lists = new Postings[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            lists[i] = postings.get(trigrams[i]);
+            if (lists[i] == null) return new int[0];
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+        Postings shortest = lists[0];
+        int[] result = new int[shortest.size];
+        int count = 0;
+        next:
+        for (int i = 0; i < shortest.size; i++) {
+            int id = shortest.ids[i];
+            for (int j = 1; j < lists.length; j++) {
+                if (!lists[j].contains(id)) continue next;
+            }
+            result[count++] = id;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private int score(String[] document, String text, int fieldMask) {
+        int score = 0;
+        for (int i = 0; i < document.length; i++) {
+            if ((fieldMask & (1 << i)) == 0) continue;
+            String field = document[i];
+            if (field.equals(text)) score += 3 * weights[i];
+            else if (field.startsWith(text)) score += 2 * weights[i];
+            else if (field.contains(text)) score += weights[i];
+        }
+        return score;
+    }
+
+    // distinct trigrams of all fields, no trigram spans two fields
+    private static long[] trigrams(String[] fields) {
+        int length = 0;
+        for (String field : fields) length += Math.max(0, field.length() - 2);
+        long[] trigrams = new long[length];
+        int count = 0;
+        for (String field : fields) {
+            for (int i = 0; i + 2 < field.length(); i++) {
+                trigrams[count++] = ((long) field.charAt(i) << 32) | ((long) field.charAt(i + 1) << 16)
+                        | field.charAt(i + 2);
+            }
+        }
+        return Arrays.stream(trigrams, 0, count).sorted().distinct().toArray();
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    @Value
+    public static class Hit {
+        int id;
+        int score;
+    }
+
+    @Value
+    public static class Hits {
+        // at most the requested number, best first
+        List<Hit> top;
+        int total;
+    }
+
+    // sorted ids, grown by doubling
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i >= 0) return;
+            i = -i - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, i, ids, i + 1, size - i);
+            ids[i] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i < 0) return false;
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demowithtests.util.stats;
+
+import com.example.demowithtests.domain.Gender;
+import com.example.demowithtests.util.event.EmployeeState;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Number of users rows per status flag, country and gender. Counts that drop to zero are removed, so two
+ * counters over the same rows are equal. Not thread-safe.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class EmployeeCounters {
+    private long employees;
+    private long deleted;
+    private long privateEmployees;
+    private long confirmed;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Long> byCountry = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final Map<Gender, Long> byGender = new EnumMap<>(Gender.class);
+
+    public void add(EmployeeState state, long delta) {
+        add(state.getCountry(), state.getGender(), state.getIsDeleted(), state.getIsPrivate(), state.getIsConfirmed(),
+                delta);
+    }
+
+    /**
+     * Counts {@code delta} rows with these values, a negative delta takes them away.
+     */
+    public void add(String country, Gender gender, Boolean isDeleted, Boolean isPrivate, Boolean isConfirmed,
+                    long delta) {
+        employees += delta;
+        if (Boolean.TRUE.equals(isDeleted)) deleted += delta;
+        if (Boolean.TRUE.equals(isPrivate)) privateEmployees += delta;
+        if (Boolean.TRUE.equals(isConfirmed)) confirmed += delta;
+        if (country != null) add(byCountry, country, delta);
+        if (gender != null) add(byGender, gender, delta);
+    }
+
+    public Map<String, Long> getByCountry() {
+        return new HashMap<>(byCountry);
+    }
+
+    public Map<Gender, Long> getByGender() {
+        return new EnumMap<>(byGender);
+    }
+
+    private static <K> void add(Map<K, Long> counts, K key, long delta) {
+        counts.merge(key, delta, (count, added) -> count + added == 0 ? null : count + added);
+    }
+}
@@ -2,10 +2,24 @@ package com.example.demowithtests.web;
 
 import com.example.demowithtests.domain.Employee;
 import com.example.demowithtests.domain.Gender;
+import com.example.demowithtests.dto.bulk.BulkOperationReportDto;
+import com.example.demowithtests.dto.bulk.CoalescingStatsDto;
+import com.example.demowithtests.dto.cache.CacheStatsDto;
+import com.example.demowithtests.dto.country.CountryCountDto;
+import com.example.demowithtests.dto.employee.EmployeeBulkPatchDto;
+import com.example.demowithtests.dto.employee.EmployeePatchDto;
 import com.example.demowithtests.dto.employee.EmployeePutDto;
 import com.example.demowithtests.dto.employee.EmployeeReadDto;
 import com.example.demowithtests.dto.employee.EmployeeCreateDto;
+import com.example.demowithtests.dto.employee.EmployeeSummaryDto;
+import com.example.demowithtests.dto.page.KeysetPageDto;
 import com.example.demowithtests.service.EmployeeService;
+import com.example.demowithtests.util.etag.ETags;
+import com.example.demowithtests.util.etag.WeakETag;
+import com.example.demowithtests.util.exception.BadRequestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -16,13 +30,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,7 +50,13 @@ import java.util.Optional;
 @Slf4j
 @Tag(name = "Employee", description = "Employee API")
 public class Controller {
+    private static final int NDJSON_FLUSH_EVERY = 100;
+    // clients may keep an employee, but have to revalidate it
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    private static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
 //    private final EmployeeMapper mapper;
 
     //Операция сохранения юзера в базу данных
@@ -58,7 +82,31 @@ public class Controller {
         return employeeService.getAll();
     }
 
+    // Потоковая выгрузка юзеров: одна строка JSON на юзера, память не зависит от размера таблицы
+    @GetMapping(value = "/users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Streams all employees as NDJSON.", tags = {"Employee"})
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(out)) {
+                int[] written = {0};
+                employeeService.streamAll(employee -> {
+                    try {
+                        writer.write(employee);
+                        if (++written[0] % NDJSON_FLUSH_EVERY == 0) writer.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/users/p")
+    @WeakETag
     @ResponseStatus(HttpStatus.OK)
     public Page<EmployeeReadDto> getPage(@RequestParam(defaultValue = "0") int page,
                                          @RequestParam(defaultValue = "5") int size
@@ -67,32 +115,85 @@ public class Controller {
         return employeeService.getAllWithPagination(paging);
     }
 
+    // Постраничный вывод по курсору (name, id): глубокие страницы не медленнее первой
+    @GetMapping("/users/p/seek")
+    @WeakETag
+    @ResponseStatus(HttpStatus.OK)
+    public KeysetPageDto<EmployeeReadDto> getPageAfter(@RequestParam(required = false) String after,
+                                                      @RequestParam(defaultValue = "5") int size) {
+        return employeeService.getAllWithSeek(after, size);
+    }
+
     //Получения юзера по id
     @GetMapping("/users/{id}")
-    @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "This is endpoint returned a employee by his id.", description = "Create request to read a employee by id", tags = {"Employee"})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "OK. pam pam param."),
             @ApiResponse(responseCode = "400", description = "Invalid input"),
             @ApiResponse(responseCode = "404", description = "NOT FOUND. Specified employee request not found."),
             @ApiResponse(responseCode = "409", description = "Employee already exists")})
-    public EmployeeReadDto getEmployeeById(@PathVariable Integer id) {
+    public ResponseEntity<EmployeeReadDto> getEmployeeById(@PathVariable Integer id,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH,
+                                                                   required = false) String ifNoneMatch) {
+        // revalidation only needs the version, the employee is not loaded, mapped or serialized;
+        // a hidden employee has no version and gets the same answer from getById as without the header
+        if (ifNoneMatch != null) {
+            Optional<String> etag = employeeService.getVersionById(id).map(ETags::strong);
+            if (etag.isPresent() && ETags.matches(ifNoneMatch, etag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag.get()).cacheControl(REVALIDATE).build();
+            }
+        }
         EmployeeReadDto employeeReadDto = employeeService.getById(id);
-        return employeeReadDto;
+        return ResponseEntity.ok().eTag(ETags.strong(employeeReadDto.getVersion())).cacheControl(REVALIDATE)
+                .body(employeeReadDto);
+    }
+
+    @GetMapping("/users/cache/stats")
+    @ResponseStatus(HttpStatus.OK)
+    public CacheStatsDto getCacheStats() {
+        return employeeService.getCacheStats();
     }
 
     //Обновление юзера
     @PutMapping("/users/{id}")
-    @ResponseStatus(HttpStatus.OK)
-    public EmployeeReadDto refreshEmployee(@PathVariable("id") Integer id, @RequestBody EmployeePutDto putDto) {
-        return employeeService.updateById(id, putDto);
+    public ResponseEntity<EmployeeReadDto> refreshEmployee(@PathVariable("id") Integer id,
+                                                           @RequestBody EmployeePutDto putDto,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH,
+                                                                   required = false) String ifMatch) {
+        EmployeeReadDto updated = employeeService.updateById(id, putDto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.strong(updated.getVersion())).body(updated);
     }
 
     //Удаление по id
     @PatchMapping("/users/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void removeEmployeeById(@PathVariable Integer id) {
-        employeeService.removeById(id);
+    public void removeEmployeeById(@PathVariable Integer id,
+                                   @RequestBody(required = false) String body,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        // a body sent with another media type was meant as a partial update, it must never delete the employee
+        if (body != null && !body.isBlank()) {
+            throw new BadRequestException("A partial update needs Content-Type " + MediaType.APPLICATION_JSON_VALUE
+                    + " or " + MERGE_PATCH_JSON_VALUE + ", a soft delete is sent without a body");
+        }
+        employeeService.removeById(id, ETags.expectedVersion(ifMatch));
+    }
+
+    // PATCH with a JSON body is a partial update, without a body it stays the soft delete above
+    @PatchMapping(value = "/users/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, MERGE_PATCH_JSON_VALUE})
+    @Operation(summary = "Updates only the fields present in the request.", tags = {"Employee"})
+    public ResponseEntity<EmployeeReadDto> patchEmployee(@PathVariable Integer id,
+                                                         @RequestBody @Valid EmployeePatchDto patchDto,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH,
+                                                                 required = false) String ifMatch) {
+        EmployeeReadDto patched = employeeService.patchById(id, patchDto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.strong(patched.getVersion())).body(patched);
+    }
+
+    @PatchMapping(value = "/users/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Applies one partial update to many employees with a single statement.", tags = {"Employee"})
+    public int patchEmployees(@RequestBody @Valid EmployeeBulkPatchDto bulkPatchDto) {
+        return employeeService.patchAll(bulkPatchDto.getIds(), bulkPatchDto.getPatch());
     }
 
     //Удаление всех юзеров
@@ -103,6 +204,7 @@ public class Controller {
     }
 
     @GetMapping("/users/country")
+    @WeakETag
     @ResponseStatus(HttpStatus.OK)
     public Page<Employee> findByCountry(@RequestParam(required = false) String country,
                                         @RequestParam(defaultValue = "0") int page,
@@ -122,23 +224,50 @@ public class Controller {
 
     @GetMapping("/users/s")
     @ResponseStatus(HttpStatus.OK)
-    public List<String> getAllUsersSort() {
-        return employeeService.getSortCountry();
+    public List<String> getAllUsersSort(@RequestParam(defaultValue = "U") String prefix) {
+        return employeeService.getSortCountry(prefix);
+    }
+
+    @GetMapping("/users/c/counts")
+    @ResponseStatus(HttpStatus.OK)
+    public List<CountryCountDto> getCountryCounts(@RequestParam(defaultValue = "") String prefix) {
+        return employeeService.countByCountry(prefix);
     }
 
     @GetMapping("/users/emails")
     @ResponseStatus(HttpStatus.OK)
-    public Optional<String> getAllUsersSo() {
-        return employeeService.findEmails();
+    public Optional<String> getAllUsersSo(@RequestParam(defaultValue = ".com") String suffix) {
+        return employeeService.findEmails(suffix);
+    }
+
+    @GetMapping("/users/emails/domain/{domain}")
+    @WeakETag
+    @ResponseStatus(HttpStatus.OK)
+    public Page<EmployeeReadDto> getByEmailDomain(@PathVariable String domain,
+                                                  @RequestParam(defaultValue = "0") int page,
+                                                  @RequestParam(defaultValue = "5") int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id"));
+        return employeeService.getByEmailDomain(domain, pageable);
+    }
+
+    @GetMapping("/users/emails/domain/{domain}/count")
+    @ResponseStatus(HttpStatus.OK)
+    public long countByEmailDomain(@PathVariable String domain) {
+        return employeeService.countByEmailDomain(domain);
     }
 
     @GetMapping("/users/byGenderAndCountry")
+    @WeakETag
     @ResponseStatus(HttpStatus.OK)
-    public List<Employee> readByGender(@RequestParam Gender gender, @RequestParam String country) {
-        return employeeService.getByGender(gender, country);
+    public Page<EmployeeSummaryDto> readByGender(@RequestParam Gender gender, @RequestParam String country,
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @RequestParam(defaultValue = "5") int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "name"));
+        return employeeService.getByGender(gender, country, pageable);
     }
 
     @GetMapping("/users/has-active-address")
+    @WeakETag
     @ResponseStatus(HttpStatus.OK)
     public Page<Employee> readActiveAddressesByCountry(@RequestParam String country,
                                                        @RequestParam(defaultValue = "0") int page,
@@ -147,6 +276,15 @@ public class Controller {
         return employeeService.getActiveAddressesByCountry(country, pageable);
     }
 
+    @GetMapping("/users/has-active-address/seek")
+    @WeakETag
+    @ResponseStatus(HttpStatus.OK)
+    public KeysetPageDto<Employee> readActiveAddressesByCountryAfter(@RequestParam String country,
+                                                                    @RequestParam(required = false) String after,
+                                                                    @RequestParam(defaultValue = "5") int size) {
+        return employeeService.getActiveAddressesByCountry(country, after, size);
+    }
+
     //---------------------------------------------------------------------------------------
     @GetMapping("/users/proc-is-deleted")
     @ResponseStatus(HttpStatus.OK)
@@ -163,6 +301,7 @@ public class Controller {
     //hw-5
     //---------------------------------------------------------------------------------------
     @GetMapping("/users/active")
+    @WeakETag
     @ResponseStatus(HttpStatus.OK)
     public Page<Employee> getAllActiveUsers(@RequestParam(defaultValue = "0") int page,
                                             @RequestParam(defaultValue = "5") int size) {
@@ -171,6 +310,7 @@ public class Controller {
     }
 
     @GetMapping("/users/deleted")
+    @WeakETag
     @ResponseStatus(HttpStatus.OK)
     public Page<Employee> getAllDeletedUsers(@RequestParam(defaultValue = "0") int page,
                                              @RequestParam(defaultValue = "5") int size) {
@@ -178,6 +318,22 @@ public class Controller {
         return employeeService.getAllDeleted(pageable);
     }
 
+    @GetMapping("/users/active/seek")
+    @WeakETag
+    @ResponseStatus(HttpStatus.OK)
+    public KeysetPageDto<Employee> getActiveUsersAfter(@RequestParam(required = false) String after,
+                                                       @RequestParam(defaultValue = "5") int size) {
+        return employeeService.getAllActive(after, size);
+    }
+
+    @GetMapping("/users/deleted/seek")
+    @WeakETag
+    @ResponseStatus(HttpStatus.OK)
+    public KeysetPageDto<Employee> getDeletedUsersAfter(@RequestParam(required = false) String after,
+                                                        @RequestParam(defaultValue = "5") int size) {
+        return employeeService.getAllDeleted(after, size);
+    }
+
     //    hw-6
     //---------------------------------------------------------------------------------------
     // Метод отправляет письмо на почту с подтверждением.
@@ -204,53 +360,44 @@ public class Controller {
     // точка входа на массовую генерацию
     @PostMapping("/users/generate/{quantity}")
     @ResponseStatus(HttpStatus.CREATED)
-    public Long generateEmployee(@PathVariable Integer quantity,
-                                 @RequestParam(required = false,
-                                         defaultValue = "false") Boolean clear) {
-        LocalDateTime timeStart = LocalDateTime.now();
-        log.info("Controller -> generateEmployee(Integer, Boolean) -> start: time={}", timeStart);
-
-        employeeService.generateEntity(quantity, clear);
-
-        LocalDateTime timeStop = LocalDateTime.now();
-        log.info("Controller -> generateEmployee(Integer, Boolean) -> stop: time={}", timeStop);
-        log.info("Controller -> generateEmployee(Integer, Boolean) -> method execution, ms: duration={}",
-                Duration.between(timeStart, timeStop).toMillis());
-        System.err.println(Duration.between(timeStart, timeStop).toMillis());
-        return Duration.between(timeStart, timeStop).toMillis();
+    public BulkOperationReportDto generateEmployee(@PathVariable Integer quantity,
+                                                  @RequestParam(required = false,
+                                                          defaultValue = "false") Boolean clear) {
+        log.info("Controller -> generateEmployee(Integer, Boolean) -> start: quantity={}", quantity);
+        BulkOperationReportDto report = employeeService.generateEntity(quantity, clear);
+        log.info("Controller -> generateEmployee(Integer, Boolean) -> stop: report={}", report);
+        return report;
     }
 
     //---------------------------------------------------------------------------------------
-    @PutMapping("/users/mass-test-update")
+    @GetMapping("/users/mass-test-update/stats")
     @ResponseStatus(HttpStatus.OK)
-    public Long employeeMassPutUpdate() {
-        LocalDateTime timeStart = LocalDateTime.now();
-        log.info("Controller -> employeeMassPutUpdate() method start: time={}", timeStart);
-
-        employeeService.massTestUpdate();
+    @Operation(summary = "Counts the mass update runs and the requests that joined another request's run.",
+            tags = {"Employee"})
+    public CoalescingStatsDto getMassUpdateStats() {
+        return employeeService.getMassUpdateStats();
+    }
 
-        LocalDateTime timeStop = LocalDateTime.now();
-        log.info("Controller -> employeeMassPutUpdate() method start: time={}", timeStop);
-        log.info("Controller -> employeeMassPutUpdate() method execution, ms: duration={}",
-                Duration.between(timeStart, timeStop).toMillis());
-        System.err.println(Duration.between(timeStart, timeStop).toMillis());
-        return Duration.between(timeStart, timeStop).toMillis();
+    @PutMapping("/users/mass-test-update")
+    @ResponseStatus(HttpStatus.OK)
+    public BulkOperationReportDto employeeMassPutUpdate(@RequestParam(defaultValue = "1000") int chunkSize,
+                                                        @RequestParam(defaultValue = "1") int parallelism) {
+        log.info("Controller -> employeeMassPutUpdate() method start: chunkSize={}, parallelism={}",
+                chunkSize, parallelism);
+        BulkOperationReportDto report = employeeService.massTestUpdate(chunkSize, parallelism);
+        log.info("Controller -> employeeMassPutUpdate() method stop: report={}", report);
+        return report;
     }
 
     //---------------------------------------------------------------------------------------
     @PatchMapping("/users/mass-test-update")
     @ResponseStatus(HttpStatus.OK)
-    public Long employeeMassPatchUpdate() {
-        LocalDateTime timeStart = LocalDateTime.now();
-        log.info("Controller -> employeeMassPatchUpdate() method start: time={}", timeStart);
-
-        employeeService.massTestUpdate();
-
-        LocalDateTime timeStop = LocalDateTime.now();
-        log.info("Controller -> employeeMassPatchUpdate() method start: time={}", timeStop);
-        log.info("Controller -> employeeMassPatchUpdate() method execution, ms: duration={}",
-                Duration.between(timeStart, timeStop).toMillis());
-        System.err.println(Duration.between(timeStart, timeStop).toMillis());
-        return Duration.between(timeStart, timeStop).toMillis();
+    public BulkOperationReportDto employeeMassPatchUpdate(@RequestParam(defaultValue = "1000") int chunkSize,
+                                                          @RequestParam(defaultValue = "1") int parallelism) {
+        log.info("Controller -> employeeMassPatchUpdate() method start: chunkSize={}, parallelism={}",
+                chunkSize, parallelism);
+        BulkOperationReportDto report = employeeService.massTestUpdate(chunkSize, parallelism);
+        log.info("Controller -> employeeMassPatchUpdate() method stop: report={}", report);
+        return report;
     }
 }
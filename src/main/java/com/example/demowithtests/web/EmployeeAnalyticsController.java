@@ -0,0 +1,43 @@
+package com.example.demowithtests.web;
+
+import com.example.demowithtests.domain.Gender;
+import com.example.demowithtests.dto.analytics.EmployeeAnalyticsDto;
+import com.example.demowithtests.service.analytics.EmployeeAnalyticsService;
+import com.example.demowithtests.util.analytics.EmployeeDimension;
+import com.example.demowithtests.util.analytics.EmployeeFilter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Set;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping(value = "/api", produces = MediaType.APPLICATION_JSON_VALUE)
+@Tag(name = "Employee", description = "Employee API")
+public class EmployeeAnalyticsController {
+    private final EmployeeAnalyticsService employeeAnalyticsService;
+
+    @GetMapping("/users/analytics")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Counts employees by status flags, country and gender without querying the database.",
+            tags = {"Employee"})
+    public EmployeeAnalyticsDto countEmployees(@RequestParam(required = false) Boolean isDeleted,
+                                               @RequestParam(required = false) Boolean isPrivate,
+                                               @RequestParam(required = false) Boolean isConfirmed,
+                                               @RequestParam(required = false) String country,
+                                               @RequestParam(required = false) Gender gender,
+                                               @RequestParam(defaultValue = "") Set<EmployeeDimension> groupBy) {
+        EmployeeFilter filter = EmployeeFilter.builder()
+                .isDeleted(isDeleted)
+                .isPrivate(isPrivate)
+                .isConfirmed(isConfirmed)
+                .country(country)
+                .gender(gender)
+                .build();
+        return employeeAnalyticsService.count(filter, groupBy);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demowithtests.web;
+
+import com.example.demowithtests.dto.employee.ArchivedEmployeeReadDto;
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.service.archive.EmployeeArchiveService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping(value = "/api", produces = MediaType.APPLICATION_JSON_VALUE)
+@Tag(name = "Employee", description = "Employee API")
+public class EmployeeArchiveController {
+    private final EmployeeArchiveService employeeArchiveService;
+
+    @PostMapping("/users/{id}/restore")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Restores a deleted employee, also when it has already been archived.", tags = {"Employee"})
+    public EmployeeReadDto restoreEmployee(@PathVariable Integer id) {
+        return employeeArchiveService.restore(id);
+    }
+
+    @GetMapping("/users/archive")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Returns archived employees.", tags = {"Employee"})
+    public Page<ArchivedEmployeeReadDto> getArchivedEmployees(@RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        return employeeArchiveService.getArchived(PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id")));
+    }
+
+    @GetMapping("/users/archive/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Returns an archived employee with its addresses.", tags = {"Employee"})
+    public ArchivedEmployeeReadDto getArchivedEmployee(@PathVariable Integer id) {
+        return employeeArchiveService.getArchivedById(id);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demowithtests.web;
+
+import com.example.demowithtests.dto.employee.EmployeeBatchResultDto;
+import com.example.demowithtests.dto.employee.EmployeeCreateDto;
+import com.example.demowithtests.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping(value = "/api")
+@Slf4j
+@Tag(name = "Employee", description = "Employee API")
+public class EmployeeBatchController {
+    // one transaction per chunk, inserted in JDBC batches of hibernate.jdbc.batch_size
+    static final int CHUNK_SIZE = 500;
+
+    private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    /**
+     * Reads a JSON array or NDJSON of employees element by element and answers with one NDJSON line per element,
+     * so neither the request nor the response is held in memory. Results of valid elements are written once
+     * their chunk is committed.
+     */
+    @PostMapping(value = "/users/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Creates many employees from a JSON array or NDJSON stream.", tags = {"Employee"})
+    public void createEmployees(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        long index = 0;
+        long created = 0;
+        List<EmployeeCreateDto> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Long> chunkIndexes = new ArrayList<>(CHUNK_SIZE);
+        try (MappingIterator<EmployeeCreateDto> items = objectMapper.readerFor(EmployeeCreateDto.class)
+                .readValues(request.getInputStream());
+             SequenceWriter results = objectMapper.writer()
+                     .withRootValueSeparator("\n")
+                     .writeValues(response.getOutputStream())) {
+            while (true) {
+                EmployeeCreateDto createDto;
+                try {
+                    if (!items.hasNextValue()) break;
+                    createDto = items.nextValue();
+                } catch (JsonMappingException e) {
+                    // the element does not fit EmployeeCreateDto, the parser skips to the next one
+                    results.write(EmployeeBatchResultDto.rejected(index++, List.of(e.getOriginalMessage())));
+                    continue;
+                } catch (JsonProcessingException e) {
+                    results.write(EmployeeBatchResultDto.rejected(index, List.of("Malformed JSON: " + e.getOriginalMessage())));
+                    break;
+                }
+                List<String> errors = validate(createDto);
+                if (!errors.isEmpty()) {
+                    results.write(EmployeeBatchResultDto.rejected(index++, errors));
+                    continue;
+                }
+                chunk.add(createDto);
+                chunkIndexes.add(index++);
+                if (chunk.size() == CHUNK_SIZE) {
+                    created += insert(chunk, chunkIndexes, results);
+                }
+            }
+            created += insert(chunk, chunkIndexes, results);
+        }
+        log.info("createEmployees() EmployeeBatchController - end: elements = {}, created = {}", index, created);
+    }
+
+    private List<String> validate(EmployeeCreateDto createDto) {
+        if (createDto == null) return List.of("Element must be an object");
+        Set<ConstraintViolation<EmployeeCreateDto>> violations = validator.validate(createDto);
+        if (violations.isEmpty()) return Collections.emptyList();
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private int insert(List<EmployeeCreateDto> chunk, List<Long> chunkIndexes, SequenceWriter results) throws IOException {
+        if (chunk.isEmpty()) return 0;
+        int created = 0;
+        try {
+            List<Integer> ids = employeeService.createAll(chunk);
+            for (int i = 0; i < ids.size(); i++) {
+                results.write(EmployeeBatchResultDto.created(chunkIndexes.get(i), ids.get(i)));
+            }
+            created = ids.size();
+        } catch (RuntimeException e) {
+            // the chunk is rolled back as a whole, later chunks are still tried
+            log.warn("createEmployees() EmployeeBatchController - chunk failed: {}", e.getMessage());
+            for (Long chunkIndex : chunkIndexes) {
+                results.write(EmployeeBatchResultDto.rejected(chunkIndex, List.of("Not saved: " + e.getMessage())));
+            }
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+        return created;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demowithtests.web;
+
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.service.search.EmployeeSearchField;
+import com.example.demowithtests.service.search.EmployeeSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping(value = "/api", produces = MediaType.APPLICATION_JSON_VALUE)
+@Tag(name = "Employee", description = "Employee API")
+public class EmployeeSearchController {
+    private final EmployeeSearchService employeeSearchService;
+
+    @GetMapping("/users/search")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Finds visible employees by a part of the name, email or country of at least 3 characters, "
+            + "best matches first.",
+            tags = {"Employee"})
+    public Page<EmployeeReadDto> search(@RequestParam String q,
+                                        @RequestParam(required = false) EmployeeSearchField field,
+                                        @RequestParam(defaultValue = "0") int page,
+                                        @RequestParam(defaultValue = "20") int size) {
+        return employeeSearchService.search(q, field, PageRequest.of(page, size));
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demowithtests.web;
+
+import com.example.demowithtests.dto.stats.EmployeeStatsDto;
+import com.example.demowithtests.service.stats.EmployeeStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping(value = "/api", produces = MediaType.APPLICATION_JSON_VALUE)
+@Tag(name = "Employee", description = "Employee API")
+public class EmployeeStatsController {
+    private final EmployeeStatsService employeeStatsService;
+
+    @GetMapping("/users/stats")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Counts employees by status flags, country and gender from counters kept up to date on every change.",
+            tags = {"Employee"})
+    public EmployeeStatsDto getStats() {
+        return employeeStatsService.getStats();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demowithtests.web;
+
+import com.example.demowithtests.dto.job.JobReadDto;
+import com.example.demowithtests.service.job.JobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping(value = "/api", produces = MediaType.APPLICATION_JSON_VALUE)
+@Tag(name = "Job", description = "Long-running admin operations")
+public class JobController {
+    private final JobService jobService;
+
+    @PostMapping("/jobs/generate/{quantity}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Queues a mass generation of employees.", tags = {"Job"})
+    public JobReadDto submitGenerate(@PathVariable Integer quantity,
+                                     @RequestParam(required = false, defaultValue = "false") Boolean clear) {
+        return jobService.submitGenerate(quantity, clear);
+    }
+
+    @PostMapping("/jobs/mass-test-update")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Queues a chunked mass update of employees.", tags = {"Job"})
+    public JobReadDto submitMassUpdate(@RequestParam(defaultValue = "1000") int chunkSize,
+                                       @RequestParam(defaultValue = "1") int parallelism) {
+        return jobService.submitMassUpdate(chunkSize, parallelism);
+    }
+
+    @GetMapping("/jobs")
+    @ResponseStatus(HttpStatus.OK)
+    public List<JobReadDto> getAllJobs() {
+        return jobService.getAll();
+    }
+
+    @GetMapping("/jobs/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Returns status, progress and throughput of a job.", tags = {"Job"})
+    public JobReadDto getJob(@PathVariable String id) {
+        return jobService.getById(id);
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Cancels a queued or running job.", tags = {"Job"})
+    public JobReadDto cancelJob(@PathVariable String id) {
+        return jobService.cancel(id);
+    }
+}
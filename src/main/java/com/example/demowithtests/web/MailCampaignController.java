@@ -0,0 +1,53 @@
+package com.example.demowithtests.web;
+
+import com.example.demowithtests.dto.mail.MailCampaignReadDto;
+import com.example.demowithtests.dto.mail.MailResultDto;
+import com.example.demowithtests.service.mail.MailCampaignService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping(value = "/api", produces = MediaType.APPLICATION_JSON_VALUE)
+@Tag(name = "Mail", description = "Confirmation-mail campaigns")
+public class MailCampaignController {
+    private final MailCampaignService mailCampaignService;
+
+    @PostMapping("/mail/campaigns")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Queues confirmation mails for all unconfirmed employees.", tags = {"Mail"})
+    public MailCampaignReadDto startCampaign(@RequestParam(defaultValue = "${app.mail.campaign.rate-per-second:10}") int ratePerSecond,
+                                             @RequestParam(defaultValue = "${app.mail.campaign.parallelism:2}") int parallelism) {
+        return mailCampaignService.start(ratePerSecond, parallelism);
+    }
+
+    @PostMapping("/mail/campaigns/{id}/resume")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Continues a stopped campaign without sending any mail twice.", tags = {"Mail"})
+    public MailCampaignReadDto resumeCampaign(@PathVariable Long id) {
+        return mailCampaignService.resume(id);
+    }
+
+    @GetMapping("/mail/campaigns/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Returns the campaign with mail counts per status.", tags = {"Mail"})
+    public MailCampaignReadDto getCampaign(@PathVariable Long id) {
+        return mailCampaignService.getById(id);
+    }
+
+    @GetMapping("/mail/campaigns/{id}/results")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Returns the delivery result for every recipient of the campaign.", tags = {"Mail"})
+    public Page<MailResultDto> getCampaignResults(@PathVariable Long id,
+                                                  @RequestParam(defaultValue = "0") int page,
+                                                  @RequestParam(defaultValue = "100") int size) {
+        return mailCampaignService.getResults(id, PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id")));
+    }
+}
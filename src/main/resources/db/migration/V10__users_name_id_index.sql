@@ -0,0 +1,2 @@
+-- Serves keyset pagination in (name, id) order
+CREATE INDEX IF NOT EXISTS users_name_id_idx ON users (name, id);
@@ -0,0 +1,2 @@
+-- varchar_pattern_ops lets `country LIKE 'prefix%'` use the index regardless of the database collation
+CREATE INDEX IF NOT EXISTS users_country_pattern_idx ON users (country varchar_pattern_ops);
@@ -0,0 +1,15 @@
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS email_domain varchar;
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS email_domain_reversed varchar;
+
+-- Same rule as Employee.domainOf(): lower-cased part after the last '@'
+UPDATE users
+SET email_domain = nullif(lower(substring(email from '@([^@]*)$')), '')
+WHERE email IS NOT NULL;
+UPDATE users
+SET email_domain_reversed = reverse(email_domain)
+WHERE email_domain IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS users_email_domain_idx ON users (email_domain);
+CREATE INDEX IF NOT EXISTS users_email_domain_reversed_idx ON users (email_domain_reversed varchar_pattern_ops);
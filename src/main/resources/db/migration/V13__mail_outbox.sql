@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS public.mail_outbox
+(
+    id              bigserial primary key not null,
+    employee_id     integer,
+    recipient       character varying(255),
+    subject         character varying(255),
+    body            text,
+    status          character varying(16)  not null,
+    attempts        integer                not null default 0,
+    next_attempt_at timestamp              not null,
+    last_error      character varying(1024),
+    created_at      timestamp              not null,
+    sent_at         timestamp
+);
+-- matches allocationSize of the OutboxMail id generator
+ALTER SEQUENCE mail_outbox_id_seq INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS mail_outbox_pending_idx ON mail_outbox (next_attempt_at, id) WHERE status = 'PENDING';
@@ -0,0 +1,23 @@
+CREATE TABLE IF NOT EXISTS public.mail_campaign
+(
+    id               bigserial primary key not null,
+    status           character varying(16) not null,
+    rate_per_second  integer               not null,
+    parallelism      integer               not null,
+    last_employee_id integer,
+    enqueue_finished boolean               not null default false,
+    enqueued         bigint                not null default 0,
+    created_at       timestamp             not null,
+    started_at       timestamp,
+    finished_at      timestamp
+);
+
+ALTER TABLE mail_outbox ADD COLUMN IF NOT EXISTS campaign_id bigint REFERENCES mail_campaign (id);
+-- one mail per employee and campaign, whatever happens to the enqueue cursor
+ALTER TABLE mail_outbox ADD CONSTRAINT mail_outbox_campaign_employee_uq UNIQUE (campaign_id, employee_id);
+
+-- the general dispatcher only polls mails outside of campaigns
+DROP INDEX IF EXISTS mail_outbox_pending_idx;
+CREATE INDEX IF NOT EXISTS mail_outbox_pending_idx ON mail_outbox (next_attempt_at, id)
+    WHERE status = 'PENDING' AND campaign_id IS NULL;
+CREATE INDEX IF NOT EXISTS mail_outbox_campaign_status_idx ON mail_outbox (campaign_id, status, id);
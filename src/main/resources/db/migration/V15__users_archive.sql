@@ -0,0 +1,35 @@
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS deleted_at timestamp;
+-- rows soft-deleted before this migration start their retention now
+UPDATE users
+SET deleted_at = now()
+WHERE is_deleted = true
+  AND deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS users_deleted_at_idx ON users (deleted_at, id) WHERE is_deleted = true;
+
+CREATE TABLE IF NOT EXISTS public.users_archive
+(
+    id                    integer primary key not null,
+    name                  character varying,
+    email                 character varying,
+    country               character varying,
+    gender                character varying,
+    is_private            boolean,
+    is_confirmed          boolean,
+    email_domain          character varying,
+    email_domain_reversed character varying,
+    deleted_at            timestamp,
+    archived_at           timestamp           not null
+);
+CREATE INDEX IF NOT EXISTS users_archive_name_id_idx ON users_archive (name, id);
+
+CREATE TABLE IF NOT EXISTS public.addresses_archive
+(
+    id                 bigint primary key not null,
+    address_has_active boolean,
+    city               character varying(255),
+    country            character varying(255),
+    street             character varying(255),
+    employee_id        integer references public.users_archive (id)
+);
+CREATE INDEX IF NOT EXISTS addresses_archive_employee_id_idx ON addresses_archive (employee_id);
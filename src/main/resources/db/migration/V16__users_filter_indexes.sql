@@ -0,0 +1,17 @@
+-- Duplicate of the primary key index, only slows down writes
+DROP INDEX IF EXISTS users_id_uindex;
+
+-- Name-ordered paging and keyset seeks of active / deleted employees (findAllActive, seekActive, ...).
+-- Partial indexes keep the deleted rows out of the index used by the hot path.
+CREATE INDEX IF NOT EXISTS users_active_name_id_idx ON users (name, id) WHERE is_deleted = false;
+CREATE INDEX IF NOT EXISTS users_deleted_name_id_idx ON users (name, id) WHERE is_deleted = true;
+
+-- Maintenance queries looking for rows with an unset flag; these rows are rare, so the indexes stay tiny
+CREATE INDEX IF NOT EXISTS users_is_deleted_null_idx ON users (id) WHERE is_deleted IS NULL;
+CREATE INDEX IF NOT EXISTS users_is_private_null_idx ON users (id) WHERE is_private IS NULL;
+CREATE INDEX IF NOT EXISTS users_is_confirmed_null_idx ON users (id) WHERE is_confirmed IS NULL;
+
+-- Join from users to addresses (batch fetch of Employee.addresses, exists subqueries)
+CREATE INDEX IF NOT EXISTS addresses_employee_id_idx ON addresses (employee_id);
+-- Employees by address country, optionally only active addresses (findByGender, findAllWhereIsActiveAddressByCountry)
+CREATE INDEX IF NOT EXISTS addresses_country_active_idx ON addresses (country, address_has_active, employee_id);
@@ -0,0 +1,6 @@
+-- optimistic lock version, also the entity tag of GET /api/users/{id}
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+-- kept while archived, so a restored row does not reuse an entity tag of its past
+ALTER TABLE users_archive
+    ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,2 @@
+-- Recipients of mail campaigns (findUnconfirmedAfter); the predicate matches the query, so the planner can use it
+CREATE INDEX IF NOT EXISTS users_unconfirmed_id_idx ON users (id) WHERE is_confirmed IS NULL OR is_confirmed = false;
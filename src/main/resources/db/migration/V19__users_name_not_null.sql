@@ -0,0 +1,5 @@
+-- Keyset seeks compare (name, id) row values, which never match a null name: unnamed employees get an empty one
+UPDATE users SET name = '' WHERE name IS NULL;
+ALTER TABLE users ALTER COLUMN name SET NOT NULL;
+-- restored employees are copied back into users
+UPDATE users_archive SET name = '' WHERE name IS NULL;
@@ -0,0 +1,3 @@
+-- Employee ids are allocated by Hibernate's pooled optimizer (allocationSize = 50),
+-- so the sequence has to hand out blocks of the same size for JDBC batching to work.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
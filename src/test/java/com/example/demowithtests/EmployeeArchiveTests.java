@@ -0,0 +1,148 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.domain.Address;
+import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.dto.employee.ArchivedEmployeeReadDto;
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.repository.EmployeeArchiveRepository;
+import com.example.demowithtests.repository.EmployeeRepository;
+import com.example.demowithtests.service.EmployeeService;
+import com.example.demowithtests.service.EmployeeServiceBean;
+import com.example.demowithtests.service.archive.EmployeeArchiveService;
+import com.example.demowithtests.service.archive.EmployeeArchiveServiceBean;
+import com.example.demowithtests.service.cache.EmployeeReadCache;
+import com.example.demowithtests.service.job.BulkWriteGuard;
+import com.example.demowithtests.util.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({EmployeeArchiveServiceBean.class, EmployeeServiceBean.class, BulkWriteGuard.class, EmployeeReadCache.class})
+public class EmployeeArchiveTests {
+
+    @Autowired
+    private EmployeeArchiveService employeeArchiveService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeArchiveRepository employeeArchiveRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private Integer id;
+
+    @BeforeEach
+    public void setUp() {
+        Address address = new Address();
+        address.setCountry("Ukraine");
+        address.setCity("Kyiv");
+        id = employeeRepository.save(Employee.builder()
+                .name("Mark")
+                .email("mark@mail.com")
+                .country("Ukraine")
+                .addresses(Set.of(address))
+                .isDeleted(Boolean.FALSE)
+                .isPrivate(Boolean.FALSE)
+                .isConfirmed(Boolean.TRUE)
+                .build()).getId();
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    public void removeByIdMarksEmployeeDeleted() {
+        employeeService.removeById(id);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        Employee employee = employeeRepository.findById(id).orElseThrow();
+        assertThat(employee.getIsDeleted()).isTrue();
+        assertThat(employee.getDeletedAt()).isNotNull();
+    }
+
+    @Test
+    public void employeeWithinRetentionIsNotArchived() {
+        employeeService.removeById(id);
+        testEntityManager.flush();
+
+        int archived = employeeArchiveService.archiveDeletedBefore(LocalDateTime.now().minusDays(1));
+
+        assertThat(archived).isZero();
+        assertThat(employeeRepository.existsById(id)).isTrue();
+    }
+
+    @Test
+    public void activeEmployeeIsNeverArchived() {
+        int archived = employeeArchiveService.archiveDeletedBefore(LocalDateTime.now().plusDays(1));
+
+        assertThat(archived).isZero();
+        assertThat(employeeArchiveRepository.count()).isZero();
+    }
+
+    @Test
+    public void archiveAndRestoreRoundTrip() {
+        employeeService.removeById(id);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        int archived = employeeArchiveService.archiveDeletedBefore(LocalDateTime.now().plusDays(1));
+        testEntityManager.clear();
+
+        assertThat(archived).isEqualTo(1);
+        assertThat(employeeRepository.existsById(id)).isFalse();
+        ArchivedEmployeeReadDto archivedEmployee = employeeArchiveService.getArchivedById(id);
+        assertThat(archivedEmployee.getName()).isEqualTo("Mark");
+        assertThat(archivedEmployee.getDeletedAt()).isNotNull();
+        assertThat(archivedEmployee.getArchivedAt()).isNotNull();
+        assertThat(archivedEmployee.getAddresses()).extracting("city").containsExactly("Kyiv");
+        assertThat(employeeArchiveService.getArchived(PageRequest.of(0, 10)).getTotalElements()).isEqualTo(1);
+
+        EmployeeReadDto restored = employeeArchiveService.restore(id);
+        testEntityManager.clear();
+
+        assertThat(restored.getId()).isEqualTo(id);
+        assertThat(restored.getIsDeleted()).isFalse();
+        assertThat(restored.getAddresses()).extracting("city").containsExactly("Kyiv");
+        assertThat(employeeArchiveRepository.existsById(id)).isFalse();
+        assertThat(employeeRepository.findById(id).orElseThrow().getDeletedAt()).isNull();
+    }
+
+    @Test
+    public void restoreSoftDeletedEmployeeInPlace() {
+        employeeService.removeById(id);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        EmployeeReadDto restored = employeeArchiveService.restore(id);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        assertThat(restored.getIsDeleted()).isFalse();
+        assertThat(employeeRepository.findById(id).orElseThrow().getIsDeleted()).isFalse();
+    }
+
+    @Test
+    public void restoreUnknownEmployeeThrows() {
+        assertThatThrownBy(() -> employeeArchiveService.restore(Integer.MAX_VALUE))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
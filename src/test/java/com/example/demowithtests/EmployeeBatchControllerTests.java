@@ -0,0 +1,77 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.service.EmployeeService;
+import com.example.demowithtests.web.EmployeeBatchController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeBatchControllerTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new EmployeeBatchController(employeeService, new ObjectMapper(), validator))
+                .build();
+    }
+
+    @Test
+    public void ndjsonBody_validElementsAreSavedAndInvalidOnesReported() throws Exception {
+        given(employeeService.createAll(anyList())).willReturn(List.of(10, 11));
+        String body = "{\"name\":\"Mark\",\"country\":\"England\",\"email\":\"mark@mail.com\"}\n" +
+                "{\"name\":\"X\",\"email\":\"not-an-email\"}\n" +
+                "{\"name\":\"Anna\",\"country\":\"Poland\",\"email\":\"anna@mail.com\"}\n";
+
+        String[] lines = postBatch(MediaType.APPLICATION_NDJSON, body);
+
+        assertThat(lines).containsExactly(
+                "{\"index\":1,\"errors\":[\"email: must be a well-formed email address\",\"name: Name must be between 2 and 32 characters long\"]}",
+                "{\"index\":0,\"id\":10}",
+                "{\"index\":2,\"id\":11}");
+    }
+
+    @Test
+    public void jsonArrayBody_badElementIsSkipped() throws Exception {
+        given(employeeService.createAll(anyList())).willReturn(List.of(20));
+        String body = "[{\"name\":\"Mark\",\"email\":\"mark@mail.com\",\"gender\":\"X\"}," +
+                "{\"name\":\"Anna\",\"email\":\"anna@mail.com\",\"gender\":\"F\"}]";
+
+        String[] lines = postBatch(MediaType.APPLICATION_JSON, body);
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"index\":0,\"errors\":[");
+        assertThat(lines[1]).isEqualTo("{\"index\":1,\"id\":20}");
+    }
+
+    private String[] postBatch(MediaType contentType, String body) throws Exception {
+        return mockMvc.perform(post("/api/users/batch")
+                        .contentType(contentType)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()
+                .split("\n");
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.domain.Gender;
+import com.example.demowithtests.dto.analytics.EmployeeGroupCountDto;
+import com.example.demowithtests.util.analytics.EmployeeColumns;
+import com.example.demowithtests.util.analytics.EmployeeDimension;
+import com.example.demowithtests.util.analytics.EmployeeFilter;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeColumnsTests {
+    private static final String[] COUNTRIES = {"Ukraine", "Poland", "France"};
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void countsMatchABruteForceCount(boolean offHeap) {
+        EmployeeColumns columns = new EmployeeColumns(offHeap, ForkJoinPool.commonPool());
+        // more ids than one fork-join leaf, with gaps
+        int employees = 300_000;
+        long activeConfirmedUkrainianWomen = 0;
+        for (int id = 1; id <= employees; id++) {
+            if (id % 7 == 0) continue;
+            String country = COUNTRIES[id % 3];
+            Gender gender = id % 2 == 0 ? Gender.M : Gender.F;
+            boolean deleted = id % 5 == 0;
+            boolean confirmed = id % 3 != 1;
+            columns.put(id, country, gender, deleted, null, confirmed);
+            if (!deleted && confirmed && country.equals("Ukraine") && gender == Gender.F) activeConfirmedUkrainianWomen++;
+        }
+
+        EmployeeFilter activeConfirmed = EmployeeFilter.builder().isDeleted(false).isConfirmed(true).build();
+        List<EmployeeGroupCountDto> groups = columns.countBy(activeConfirmed,
+                Set.of(EmployeeDimension.COUNTRY, EmployeeDimension.GENDER));
+
+        assertThat(groups).contains(new EmployeeGroupCountDto("Ukraine", Gender.F, activeConfirmedUkrainianWomen));
+        assertThat(groups.stream().mapToLong(EmployeeGroupCountDto::getEmployees).sum())
+                .isEqualTo(columns.count(activeConfirmed));
+        assertThat(columns.count(EmployeeFilter.builder().country("Ukraine").gender(Gender.F).isDeleted(false)
+                .isConfirmed(true).build())).isEqualTo(activeConfirmedUkrainianWomen);
+        assertThat(columns.count(EmployeeFilter.ANY)).isEqualTo(columns.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void updatesAndRemovesReplaceTheRow(boolean offHeap) {
+        EmployeeColumns columns = new EmployeeColumns(offHeap, ForkJoinPool.commonPool());
+        columns.put(1, "Ukraine", Gender.F, false, false, false);
+        columns.put(2, "Poland", null, false, false, false);
+        columns.put(1, "Poland", Gender.M, true, false, true);
+        columns.remove(2);
+        columns.remove(3);
+
+        assertThat(columns.size()).isEqualTo(1);
+        assertThat(columns.countBy(EmployeeFilter.ANY, Set.of(EmployeeDimension.COUNTRY)))
+                .containsExactly(new EmployeeGroupCountDto("Poland", null, 1));
+        assertThat(columns.count(EmployeeFilter.builder().isDeleted(true).isConfirmed(true).build())).isEqualTo(1);
+        assertThat(columns.count(EmployeeFilter.builder().country("Ukraine").build())).isZero();
+        assertThat(columns.count(EmployeeFilter.builder().country("Spain").build())).isZero();
+    }
+}
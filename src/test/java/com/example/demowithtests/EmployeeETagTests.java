@@ -0,0 +1,133 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.dto.employee.EmployeePatchDto;
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.service.EmployeeService;
+import com.example.demowithtests.util.etag.EmployeeChangeGeneration;
+import com.example.demowithtests.util.etag.WeakETagInterceptor;
+import com.example.demowithtests.util.event.EmployeeChangedEvent;
+import com.example.demowithtests.util.exception.GlobalExceptionHandler;
+import com.example.demowithtests.util.exception.PreconditionFailedException;
+import com.example.demowithtests.util.exception.ResourceIsPrivateException;
+import com.example.demowithtests.web.Controller;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.times;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeETagTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private final EmployeeChangeGeneration generation = new EmployeeChangeGeneration();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new Controller(employeeService, new ObjectMapper()))
+                .addInterceptors(new WeakETagInterceptor(generation))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    public void employeeIsRevalidatedByVersion() throws Exception {
+        given(employeeService.getById(7)).willReturn(employee(7, 3L));
+        mockMvc.perform(get("/api/users/7"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                // the body only changes with the version
+                .andExpect(jsonPath("$.datetime").doesNotExist());
+
+        given(employeeService.getVersionById(7)).willReturn(Optional.of(3L));
+        mockMvc.perform(get("/api/users/7").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified());
+        verify(employeeService).getById(7);
+
+        given(employeeService.getVersionById(7)).willReturn(Optional.of(4L));
+        given(employeeService.getById(7)).willReturn(employee(7, 4L));
+        mockMvc.perform(get("/api/users/7").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    public void hiddenEmployeeIsNotRevalidated() throws Exception {
+        given(employeeService.getVersionById(7)).willReturn(Optional.empty());
+        given(employeeService.getById(7)).willThrow(new ResourceIsPrivateException());
+
+        mockMvc.perform(get("/api/users/7").header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isForbidden())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void patchWithStaleIfMatchFails() throws Exception {
+        given(employeeService.patchById(eq(7), any(EmployeePatchDto.class), eq(2L)))
+                .willThrow(new PreconditionFailedException("Employee 7 has version 3, not 2"));
+
+        mockMvc.perform(patch("/api/users/7").header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"Hanna\"}"))
+                .andExpect(status().isPreconditionFailed());
+        // a weak tag never matches strongly
+        mockMvc.perform(patch("/api/users/7").header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"Hanna\"}"))
+                .andExpect(status().isPreconditionFailed());
+        verify(employeeService, never()).patchById(eq(7), any(EmployeePatchDto.class), eq(3L));
+    }
+
+    @Test
+    public void pagesAreRevalidatedWithoutQuerying() throws Exception {
+        given(employeeService.getAllWithPagination(any())).willReturn(page());
+        String etag = mockMvc.perform(get("/api/users/p"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/users/p").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verify(employeeService, times(1)).getAllWithPagination(any());
+
+        generation.onChanged(new EmployeeChangedEvent(List.of()));
+        mockMvc.perform(get("/api/users/p").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    private static EmployeeReadDto employee(Integer id, Long version) {
+        EmployeeReadDto employee = new EmployeeReadDto();
+        employee.setId(id);
+        employee.setName("Anna");
+        employee.setVersion(version);
+        return employee;
+    }
+
+    private static Page<EmployeeReadDto> page() {
+        return new PageImpl<>(List.of(employee(1, 0L)));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.dto.employee.EmployeePatchDto;
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.service.EmployeeService;
+import com.example.demowithtests.util.exception.GlobalExceptionHandler;
+import com.example.demowithtests.web.Controller;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeePatchTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new Controller(employeeService, new ObjectMapper()))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    public void patchWithoutBody_softDeletes() throws Exception {
+        mockMvc.perform(patch("/api/users/7"))
+                .andExpect(status().isNoContent());
+
+        verify(employeeService).removeById(7, null);
+    }
+
+    @Test
+    public void mergePatchBody_isPartialUpdate() throws Exception {
+        EmployeeReadDto patched = new EmployeeReadDto();
+        patched.setVersion(2L);
+        given(employeeService.patchById(eq(7), any(EmployeePatchDto.class), isNull())).willReturn(patched);
+
+        mockMvc.perform(patch("/api/users/7")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"name\":\"Anna\"}"))
+                .andExpect(status().isOk());
+
+        verify(employeeService, never()).removeById(anyInt(), any());
+    }
+
+    @Test
+    public void bodyWithOtherMediaType_neverDeletes() throws Exception {
+        mockMvc.perform(patch("/api/users/7")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("{\"name\":\"Anna\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/users/7")
+                        .content("{\"name\":\"Anna\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(employeeService, never()).removeById(anyInt(), any());
+    }
+
+    @Test
+    public void illegalArgumentFromBelow_isServerError() throws Exception {
+        given(employeeService.patchById(eq(7), any(EmployeePatchDto.class), isNull()))
+                .willThrow(new IllegalArgumentException("bug"));
+
+        mockMvc.perform(patch("/api/users/7")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"name\":\"Anna\"}"))
+                .andExpect(status().isInternalServerError());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.dto.address.AddressReadDto;
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.service.cache.EmployeeReadCache;
+import com.example.demowithtests.util.event.EmployeeChange;
+import com.example.demowithtests.util.event.EmployeeChangedEvent;
+import com.example.demowithtests.util.event.EmployeeNamesChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeReadCacheTests {
+
+    private final EmployeeReadCache cache = new EmployeeReadCache(100, Duration.ofMinutes(10));
+
+    @Test
+    public void callersGetTheirOwnCopy() {
+        EmployeeReadDto employee = employee(1, "Anna");
+        AddressReadDto address = new AddressReadDto();
+        address.setCity("Kyiv");
+        employee.getAddresses().add(address);
+        cache.put(1, employee, cache.invalidations());
+
+        employee.setName("Changed");
+        EmployeeReadDto first = cache.get(1);
+        first.setName("Changed");
+        first.getAddresses().iterator().next().setCity("Changed");
+
+        EmployeeReadDto second = cache.get(1);
+        assertThat(second.getName()).isEqualTo("Anna");
+        assertThat(second.getAddresses()).extracting(AddressReadDto::getCity).containsExactly("Kyiv");
+    }
+
+    @Test
+    public void entryLoadedBeforeAnEvictionIsNotCached() {
+        long invalidations = cache.invalidations();
+        cache.onChanged(new EmployeeChangedEvent(List.of(EmployeeChange.removed(2, null))));
+
+        cache.put(2, employee(2, "Anna"), invalidations);
+
+        assertThat(cache.get(2)).isNull();
+    }
+
+    @Test
+    public void committedChangesEvictTheirRows() {
+        cache.put(3, employee(3, "Anna"), cache.invalidations());
+        cache.put(4, employee(4, "Bob"), cache.invalidations());
+        cache.put(5, employee(5, "Carl"), cache.invalidations());
+
+        cache.onChanged(new EmployeeChangedEvent(List.of(EmployeeChange.removed(3, null))));
+        assertThat(cache.get(3)).isNull();
+        assertThat(cache.get(4)).isNotNull();
+
+        cache.onNamesChanged(new EmployeeNamesChangedEvent(3, 4));
+        assertThat(cache.get(4)).isNull();
+        assertThat(cache.get(5)).isNotNull();
+
+        cache.onChanged(EmployeeChangedEvent.bulk());
+        assertThat(cache.get(5)).isNull();
+    }
+
+    private static EmployeeReadDto employee(Integer id, String name) {
+        EmployeeReadDto employee = new EmployeeReadDto();
+        employee.setId(id);
+        employee.setName(name);
+        return employee;
+    }
+}
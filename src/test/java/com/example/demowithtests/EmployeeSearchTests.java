@@ -0,0 +1,177 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.dto.employee.EmployeePatchDto;
+import com.example.demowithtests.repository.EmployeeRepository;
+import com.example.demowithtests.service.EmployeeService;
+import com.example.demowithtests.service.EmployeeServiceBean;
+import com.example.demowithtests.service.cache.EmployeeReadCache;
+import com.example.demowithtests.service.job.BulkWriteGuard;
+import com.example.demowithtests.service.search.EmployeeSearchField;
+import com.example.demowithtests.service.search.EmployeeSearchService;
+import com.example.demowithtests.service.search.EmployeeSearchServiceBean;
+import com.example.demowithtests.util.event.EmployeeChangeCollector;
+import com.example.demowithtests.util.exception.BadRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// not transactional: the index only follows committed changes
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "app.events.max-changes-per-transaction=10")
+@Import({EmployeeSearchServiceBean.class, EmployeeChangeCollector.class, EmployeeServiceBean.class, BulkWriteGuard.class,
+        EmployeeReadCache.class})
+public class EmployeeSearchTests {
+
+    @Autowired
+    private EmployeeSearchService employeeSearchService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    public void followsCommittedChanges() {
+        Employee anna = employeeRepository.save(Employee.builder().name("Anna").email("anna@mail.com")
+                .country("Ukraine").isDeleted(Boolean.FALSE).isPrivate(Boolean.FALSE)
+                .isConfirmed(Boolean.TRUE).build());
+        employeeRepository.save(Employee.builder().name("Joanna").email("jo@gmail.com")
+                .country("Poland").isDeleted(Boolean.FALSE).isPrivate(Boolean.FALSE)
+                .isConfirmed(Boolean.TRUE).build());
+
+        assertThat(names("anna", null)).containsExactly("Anna", "Joanna");
+        assertThat(names("pol", EmployeeSearchField.COUNTRY)).containsExactly("Joanna");
+
+        EmployeePatchDto patch = new EmployeePatchDto();
+        patch.setName("Hanna");
+        employeeService.patchById(anna.getId(), patch);
+        assertThat(names("hann", null)).containsExactly("Hanna");
+
+        employeeService.removeById(anna.getId());
+        assertThat(names("anna", null)).containsExactly("Joanna");
+        assertThat(employeeSearchService.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void bulkUpdatesReachTheIndex() {
+        Employee bob = employeeRepository.save(Employee.builder().name("Bob").country("France")
+                .isDeleted(Boolean.FALSE).isPrivate(Boolean.FALSE)
+                .isConfirmed(Boolean.TRUE).build());
+        EmployeePatchDto patch = new EmployeePatchDto();
+        patch.setCountry("Spain");
+
+        employeeService.patchAll(List.of(bob.getId()), patch);
+
+        assertThat(names("spa", EmployeeSearchField.COUNTRY)).containsExactly("Bob");
+        assertThat(names("fra", EmployeeSearchField.COUNTRY)).isEmpty();
+    }
+
+    @Test
+    public void massUpdatedNamesAreReloadedInTheBackground() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            employeeRepository.save(Employee.builder().name("Anna" + i).isDeleted(Boolean.FALSE)
+                    .isPrivate(Boolean.FALSE).isConfirmed(Boolean.TRUE).build());
+        }
+        assertThat(names("anna", null)).hasSize(5);
+
+        employeeService.massTestUpdate(2, 1);
+
+        // the new names are timestamps
+        await(() -> names("anna", null).isEmpty());
+        assertThat(names(String.valueOf(LocalDate.now().getYear()), EmployeeSearchField.NAME)).hasSize(5);
+        assertThat(employeeSearchService.size()).isEqualTo(5);
+    }
+
+    @Test
+    public void hiddenEmployeesAreNotFound() {
+        Employee anna = employeeRepository.save(Employee.builder().name("Anna").isDeleted(Boolean.FALSE)
+                .isPrivate(Boolean.FALSE).isConfirmed(Boolean.TRUE).build());
+        employeeRepository.save(Employee.builder().name("Joanna").isDeleted(Boolean.FALSE)
+                .isPrivate(Boolean.TRUE).isConfirmed(Boolean.TRUE).build());
+        employeeRepository.save(Employee.builder().name("Marianna").isDeleted(Boolean.FALSE)
+                .isPrivate(Boolean.FALSE).build());
+
+        assertThat(names("anna", null)).containsExactly("Anna");
+
+        EmployeePatchDto patch = new EmployeePatchDto();
+        patch.setIsPrivate(Boolean.TRUE);
+        employeeService.patchById(anna.getId(), patch);
+        assertThat(names("anna", null)).isEmpty();
+        assertThat(employeeSearchService.size()).isZero();
+    }
+
+    @Test
+    public void largeTransactionsRebuildTheIndex() throws InterruptedException {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 20; i++) {
+                employeeRepository.save(Employee.builder().name("Anna" + i).isDeleted(Boolean.FALSE)
+                        .isPrivate(Boolean.FALSE).isConfirmed(Boolean.TRUE).build());
+            }
+        });
+
+        await(() -> employeeSearchService.size() == 20);
+        assertThat(names("anna", null)).hasSize(10);
+        assertThat(employeeSearchService.size()).isEqualTo(20);
+    }
+
+    @Test
+    public void pagesKeepTheTotal() {
+        for (int i = 0; i < 5; i++) {
+            employeeRepository.save(Employee.builder().name("Name" + i).isDeleted(Boolean.FALSE)
+                    .isPrivate(Boolean.FALSE).isConfirmed(Boolean.TRUE).build());
+        }
+
+        Page<EmployeeReadDto> page = employeeSearchService.search("name", EmployeeSearchField.NAME,
+                PageRequest.of(1, 2));
+
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).extracting(EmployeeReadDto::getName).containsExactly("Name2", "Name3");
+    }
+
+    @Test
+    public void shortQueriesAreRejected() {
+        assertThatThrownBy(() -> employeeSearchService.search("an", null, PageRequest.of(0, 10)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private List<String> names(String query, EmployeeSearchField field) {
+        return employeeSearchService.search(query, field, PageRequest.of(0, 10)).map(EmployeeReadDto::getName)
+                .getContent();
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.domain.Gender;
+import com.example.demowithtests.dto.employee.EmployeePatchDto;
+import com.example.demowithtests.dto.stats.EmployeeStatsDto;
+import com.example.demowithtests.dto.stats.EmployeeStatsGroupDto;
+import com.example.demowithtests.repository.EmployeeRepository;
+import com.example.demowithtests.service.EmployeeService;
+import com.example.demowithtests.service.EmployeeServiceBean;
+import com.example.demowithtests.service.cache.EmployeeReadCache;
+import com.example.demowithtests.service.job.BulkWriteGuard;
+import com.example.demowithtests.service.stats.EmployeeStatsServiceBean;
+import com.example.demowithtests.util.event.EmployeeChange;
+import com.example.demowithtests.util.event.EmployeeChangeCollector;
+import com.example.demowithtests.util.event.EmployeeChangedEvent;
+import com.example.demowithtests.util.event.EmployeeState;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+// not transactional: the counters only follow committed changes
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "app.events.max-changes-per-transaction=10")
+@Import({EmployeeStatsServiceBean.class, EmployeeChangeCollector.class, EmployeeServiceBean.class, BulkWriteGuard.class,
+        EmployeeReadCache.class, SimpleMeterRegistry.class})
+public class EmployeeStatsTests {
+
+    @Autowired
+    private EmployeeStatsServiceBean employeeStatsService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        employeeStatsService.reconcile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    public void countersFollowCommittedChanges() {
+        Employee anna = employeeRepository.save(Employee.builder().name("Anna").country("Ukraine").gender(Gender.F)
+                .isDeleted(Boolean.FALSE).isConfirmed(Boolean.TRUE).build());
+        employeeRepository.save(Employee.builder().name("Bob").country("Poland").gender(Gender.M)
+                .isDeleted(Boolean.FALSE).isPrivate(Boolean.TRUE).build());
+
+        EmployeePatchDto patch = new EmployeePatchDto();
+        patch.setCountry("Poland");
+        employeeService.patchById(anna.getId(), patch);
+        employeeService.removeById(anna.getId());
+
+        EmployeeStatsDto stats = employeeStatsService.getStats();
+        assertThat(stats.getEmployees()).isEqualTo(2);
+        assertThat(stats.getDeleted()).isEqualTo(1);
+        assertThat(stats.getPrivateEmployees()).isEqualTo(1);
+        assertThat(stats.getConfirmed()).isEqualTo(1);
+        assertThat(stats.getByCountry()).isEqualTo(Map.of("Poland", 2L));
+        assertThat(stats.getByGender()).isEqualTo(Map.of(Gender.F, 1L, Gender.M, 1L));
+        assertThat(employeeStatsService.reconcile()).isFalse();
+    }
+
+    @Test
+    public void bulkUpdatesAreRecounted() {
+        Employee bob = employeeRepository.save(Employee.builder().name("Bob").country("France")
+                .isDeleted(Boolean.FALSE).build());
+        EmployeePatchDto patch = new EmployeePatchDto();
+        patch.setCountry("Spain");
+
+        employeeService.patchAll(List.of(bob.getId()), patch);
+        employeeStatsService.reconcileIfStale();
+
+        assertThat(employeeStatsService.getStats().getByCountry()).isEqualTo(Map.of("Spain", 1L));
+        assertThat(meterRegistry.counter("employee.stats.drift").count()).isZero();
+    }
+
+    @Test
+    public void largeTransactionsAreRecounted() {
+        double drift = meterRegistry.counter("employee.stats.drift").count();
+        employeeService.generateEntity(30, false);
+        // the transaction was published as one bulk change, the counters wait for the recount
+        assertThat(employeeStatsService.getStats().getEmployees()).isZero();
+
+        employeeStatsService.reconcileIfStale();
+
+        assertThat(employeeStatsService.getStats().getEmployees()).isEqualTo(30);
+        assertThat(meterRegistry.counter("employee.stats.drift").count()).isEqualTo(drift);
+    }
+
+    @Test
+    public void changesDuringTheCountAreRecountedNotDrift() {
+        EmployeeRepository repository = mock(EmployeeRepository.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EmployeeStatsServiceBean stats = new EmployeeStatsServiceBean(repository, registry);
+        List<EmployeeStatsGroupDto> oneInPoland = List.of(
+                new EmployeeStatsGroupDto("Poland", null, Boolean.FALSE, null, null, 1));
+        EmployeeState created = new EmployeeState("Anna", null, "Poland", null, Boolean.FALSE, null, null);
+        given(repository.countGroups()).willReturn(List.of()).willAnswer(invocation -> {
+            // committed before the GROUP BY read, its event arrives while counting
+            stats.onChanged(new EmployeeChangedEvent(List.of(EmployeeChange.created(1, created))));
+            return oneInPoland;
+        }).willReturn(oneInPoland);
+        stats.reconcile();
+
+        assertThat(stats.reconcile()).isFalse();
+        stats.reconcileIfStale();
+
+        assertThat(stats.getStats().getEmployees()).isEqualTo(1);
+        assertThat(registry.counter("employee.stats.drift").count()).isZero();
+    }
+
+    @Test
+    public void driftIsCorrected() {
+        Employee bob = employeeRepository.save(Employee.builder().name("Bob").country("France")
+                .isDeleted(Boolean.FALSE).build());
+        // behind the back of the entity listener
+        jdbcTemplate.update("update users set country = 'Spain' where id = ?", bob.getId());
+
+        assertThat(employeeStatsService.reconcile()).isTrue();
+
+        assertThat(employeeStatsService.getStats().getByCountry()).isEqualTo(Map.of("Spain", 1L));
+        assertThat(meterRegistry.counter("employee.stats.drift").count()).isEqualTo(1);
+        assertThat(employeeStatsService.reconcile()).isFalse();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.dto.employee.EmployeePatchDto;
+import com.example.demowithtests.dto.employee.EmployeePutDto;
+import com.example.demowithtests.repository.EmployeeRepository;
+import com.example.demowithtests.service.EmployeeService;
+import com.example.demowithtests.service.EmployeeServiceBean;
+import com.example.demowithtests.service.cache.EmployeeReadCache;
+import com.example.demowithtests.service.job.BulkWriteGuard;
+import com.example.demowithtests.util.exception.PreconditionFailedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({EmployeeServiceBean.class, BulkWriteGuard.class, EmployeeReadCache.class})
+public class EmployeeVersionTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private Integer id;
+
+    @BeforeEach
+    public void setUp() {
+        id = employeeRepository.save(Employee.builder().name("Anna").email("anna@mail.com").country("Ukraine")
+                .isDeleted(Boolean.FALSE).build()).getId();
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    public void updatesBumpTheVersion() {
+        EmployeePatchDto patch = new EmployeePatchDto();
+        patch.setName("Hanna");
+        assertThat(employeeService.patchById(id, patch, 0L).getVersion()).isEqualTo(1);
+
+        EmployeePutDto put = new EmployeePutDto();
+        put.setName("Anna");
+        put.setEmail("anna@mail.com");
+        put.setCountry("Poland");
+        assertThat(employeeService.updateById(id, put, 1L).getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    public void staleVersionIsRejected() {
+        EmployeePatchDto patch = new EmployeePatchDto();
+        patch.setName("Hanna");
+        employeeService.patchById(id, patch, 0L);
+
+        assertThatThrownBy(() -> employeeService.patchById(id, patch, 0L))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> employeeService.removeById(id, 0L))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+    public void bulkUpdatesBumpTheVersion() {
+        EmployeePatchDto patch = new EmployeePatchDto();
+        patch.setCountry("Spain");
+        employeeService.patchAll(List.of(id), patch);
+        employeeRepository.updateNameByIdRange("Hanna", id - 1, id);
+        testEntityManager.clear();
+
+        assertThat(employeeRepository.findById(id).map(Employee::getVersion)).contains(2L);
+    }
+
+    @Test
+    public void hiddenEmployeeHasNoVersion() {
+        // neither private = false nor confirmed
+        assertThat(employeeService.getVersionById(id)).isEmpty();
+
+        Employee employee = employeeRepository.findById(id).orElseThrow();
+        employee.setIsPrivate(Boolean.FALSE);
+        employee.setIsConfirmed(Boolean.TRUE);
+        testEntityManager.flush();
+
+        assertThat(employeeService.getVersionById(id)).contains(1L);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.domain.Address;
+import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.repository.EmployeeRepository;
+import com.example.demowithtests.util.config.EmployeeMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class FetchPlanTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < 100; i++) {
+            Address address = new Address();
+            address.setCountry("Ukraine");
+            employeeRepository.save(Employee.builder().name("Name" + i).addresses(Set.of(address)).build());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void pageOf100EmployeesWithAddressesCostsFixedNumberOfStatements() {
+        var dtos = employeeRepository.findAll(PageRequest.of(0, 100))
+                .map(EmployeeMapper.INSTANCE::employeeToEmployeeReadDTO);
+
+        assertThat(dtos.getContent()).allSatisfy(dto -> assertThat(dto.getAddresses()).hasSize(1));
+        // page select + count + one batch select of addresses
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+}
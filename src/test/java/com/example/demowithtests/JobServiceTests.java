@@ -0,0 +1,128 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.dto.bulk.BulkOperationReportDto;
+import com.example.demowithtests.dto.job.JobReadDto;
+import com.example.demowithtests.service.EmployeeService;
+import com.example.demowithtests.service.job.BulkWriteGuard;
+import com.example.demowithtests.service.job.JobProgress;
+import com.example.demowithtests.service.job.JobServiceBean;
+import com.example.demowithtests.service.job.JobStatus;
+import com.example.demowithtests.util.exception.BadRequestException;
+import com.example.demowithtests.util.exception.JobConflictException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JobServiceTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private final BulkWriteGuard bulkWriteGuard = new BulkWriteGuard();
+
+    private JobServiceBean jobService;
+
+    @Before
+    public void setUp() {
+        jobService = new JobServiceBean(employeeService, bulkWriteGuard, 2, 10, Duration.ofHours(1));
+    }
+
+    @After
+    public void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    public void whenMassUpdateIsRunning_secondMassUpdateIsRejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.massTestUpdate(anyInt(), anyInt(), any(JobProgress.class))).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new BulkOperationReportDto();
+        });
+
+        JobReadDto first = jobService.submitMassUpdate(100, 1);
+
+        assertThatThrownBy(() -> jobService.submitMassUpdate(100, 1)).isInstanceOf(JobConflictException.class);
+        release.countDown();
+        assertThat(awaitFinished(first.getId()).getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+    }
+
+    @Test
+    public void whenGenerateIsRunning_everyOtherBulkWriteIsRejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.generateEntity(anyInt(), any(), any(JobProgress.class))).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new BulkOperationReportDto();
+        });
+
+        JobReadDto generate = jobService.submitGenerate(100, true);
+
+        assertThatThrownBy(() -> jobService.submitMassUpdate(100, 1)).isInstanceOf(JobConflictException.class);
+        assertThatThrownBy(() -> bulkWriteGuard.acquire("mass update")).isInstanceOf(JobConflictException.class);
+        release.countDown();
+        assertThat(awaitFinished(generate.getId()).getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+    }
+
+    @Test
+    public void whenJobIsCancelled_itFinishesAsCancelled() throws Exception {
+        given(employeeService.generateEntity(anyInt(), any(), any(JobProgress.class))).willAnswer(invocation -> {
+            JobProgress progress = invocation.getArgument(2);
+            while (!progress.isCancelled()) {
+                progress.advance(1);
+                Thread.sleep(1);
+            }
+            return new BulkOperationReportDto();
+        });
+
+        JobReadDto job = jobService.submitGenerate(1_000_000, false);
+        awaitProgress(job.getId());
+        jobService.cancel(job.getId());
+
+        assertThat(awaitFinished(job.getId()).getStatus()).isEqualTo(JobStatus.CANCELLED);
+    }
+
+    @Test
+    public void invalidArgumentsAreRejectedBeforeQueueing() throws Exception {
+        assertThatThrownBy(() -> jobService.submitMassUpdate(0, 1)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> jobService.submitGenerate(-1, false)).isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(employeeService);
+
+        // the slots of both types are still free
+        given(employeeService.generateEntity(anyInt(), any(), any(JobProgress.class)))
+                .willReturn(BulkOperationReportDto.of(1, 1, System.nanoTime()));
+        JobReadDto generate = jobService.submitGenerate(1, false);
+        assertThat(awaitFinished(generate.getId()).getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+    }
+
+    private void awaitProgress(String id) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            if (jobService.getById(id).getProcessedRows() > 0) return;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Job " + id + " did not start");
+    }
+
+    private JobReadDto awaitFinished(String id) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            JobReadDto job = jobService.getById(id);
+            if (job.getStatus().isFinished()) return job;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Job " + id + " did not finish");
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.domain.CampaignStatus;
+import com.example.demowithtests.domain.MailCampaign;
+import com.example.demowithtests.domain.MailStatus;
+import com.example.demowithtests.domain.OutboxMail;
+import com.example.demowithtests.dto.bulk.BulkOperationReportDto;
+import com.example.demowithtests.repository.EmployeeRepository;
+import com.example.demowithtests.repository.MailCampaignRepository;
+import com.example.demowithtests.repository.MailOutboxRepository;
+import com.example.demowithtests.service.job.JobProgress;
+import com.example.demowithtests.service.job.JobService;
+import com.example.demowithtests.service.job.JobType;
+import com.example.demowithtests.service.mail.MailCampaignServiceBean;
+import com.example.demowithtests.util.exception.JobConflictException;
+import com.example.demowithtests.util.mail.MailRetryPolicy;
+import com.example.demowithtests.util.mail.SmtpMailer;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class MailCampaignServiceTests {
+
+    @Mock
+    private MailCampaignRepository mailCampaignRepository;
+
+    @Mock
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private JobService jobService;
+
+    private GreenMail greenMail;
+
+    private MailCampaignServiceBean campaignService;
+
+    @BeforeEach
+    public void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+        SmtpMailer mailer = new SmtpMailer(new SimpleMeterRegistry(), "localhost", greenMail.getSmtp().getPort(),
+                "noreply@example.com", "", false, false);
+        campaignService = new MailCampaignServiceBean(mailCampaignRepository, mailOutboxRepository, employeeRepository,
+                mailer, new MailRetryPolicy(3, Duration.ZERO), new InlineTransactionTemplate(), jobService,
+                500, 20);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        greenMail.stop();
+    }
+
+    @Test
+    public void resumedCampaign_sendsPendingMailsAndNeverResendsInterruptedOnes() {
+        MailCampaign campaign = MailCampaign.builder()
+                .id(1L)
+                .status(CampaignStatus.RUNNING)
+                .parallelism(1)
+                .lastEmployeeId(3)
+                .enqueueFinished(true)
+                .build();
+        List<OutboxMail> pending = pendingMails(3);
+        given(mailCampaignRepository.findById(1L)).willReturn(Optional.of(campaign));
+        given(mailOutboxRepository.findDueForCampaign(eq(1L), eq(MailStatus.PENDING), any(), eq(1L), eq(0L), any()))
+                .willReturn(pending, Collections.emptyList());
+
+        BulkOperationReportDto report = campaignService.run(1L, JobProgress.NONE);
+
+        verify(mailOutboxRepository).changeStatus(1L, MailStatus.SENDING, MailStatus.FAILED,
+                "Delivery unknown: the campaign stopped while sending");
+        verify(employeeRepository, never()).findUnconfirmedAfter(any(), any());
+        assertThat(greenMail.getReceivedMessages()).hasSize(3);
+        assertThat(report.getRows()).isEqualTo(3);
+        assertThat(pending).allSatisfy(mail -> assertThat(mail.getStatus()).isEqualTo(MailStatus.SENT));
+        assertThat(campaign.getStatus()).isEqualTo(CampaignStatus.COMPLETED);
+    }
+
+    @Test
+    public void whenServerStaysDown_mailsAreRetriedUntilGivenUp() {
+        greenMail.stop();
+        MailCampaign campaign = MailCampaign.builder()
+                .id(1L)
+                .status(CampaignStatus.CREATED)
+                .parallelism(1)
+                .enqueueFinished(true)
+                .build();
+        List<OutboxMail> pending = pendingMails(2);
+        given(mailCampaignRepository.findById(1L)).willReturn(Optional.of(campaign));
+        given(mailOutboxRepository.findDueForCampaign(eq(1L), eq(MailStatus.PENDING), any(), anyLong(), anyLong(), any()))
+                .willReturn(pending, Collections.emptyList(), pending, Collections.emptyList(),
+                        pending, Collections.emptyList());
+        given(mailOutboxRepository.findNextAttemptAt(1L, MailStatus.PENDING))
+                .willReturn(Optional.of(LocalDateTime.now()), Optional.of(LocalDateTime.now()), Optional.empty());
+
+        campaignService.run(1L, JobProgress.NONE);
+
+        assertThat(pending).allSatisfy(mail -> {
+            assertThat(mail.getStatus()).isEqualTo(MailStatus.FAILED);
+            assertThat(mail.getAttempts()).isEqualTo(3);
+        });
+        assertThat(campaign.getStatus()).isEqualTo(CampaignStatus.COMPLETED);
+    }
+
+    @Test
+    public void whenCancelledDuringBackoff_campaignStaysIncomplete() {
+        greenMail.stop();
+        MailCampaign campaign = MailCampaign.builder()
+                .id(1L)
+                .status(CampaignStatus.CREATED)
+                .parallelism(1)
+                .enqueueFinished(true)
+                .build();
+        List<OutboxMail> pending = pendingMails(2);
+        given(mailCampaignRepository.findById(1L)).willReturn(Optional.of(campaign));
+        given(mailOutboxRepository.findDueForCampaign(eq(1L), eq(MailStatus.PENDING), any(), anyLong(), anyLong(), any()))
+                .willReturn(pending, Collections.emptyList());
+        AtomicBoolean cancelled = new AtomicBoolean();
+        given(mailOutboxRepository.findNextAttemptAt(1L, MailStatus.PENDING)).willAnswer(invocation -> {
+            // the job is cancelled while the run waits for the retry
+            cancelled.set(true);
+            return Optional.of(LocalDateTime.now().plusMinutes(1));
+        });
+        given(mailOutboxRepository.countByCampaignIdAndStatus(1L, MailStatus.PENDING)).willReturn(2L);
+        JobProgress cancelledWhileWaiting = new JobProgress() {
+            @Override
+            public void total(long rows) {
+            }
+
+            @Override
+            public void advance(long rows) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelled.get();
+            }
+        };
+
+        campaignService.run(1L, cancelledWhileWaiting);
+
+        assertThat(pending).allSatisfy(mail -> {
+            assertThat(mail.getStatus()).isEqualTo(MailStatus.PENDING);
+            assertThat(mail.getAttempts()).isEqualTo(1);
+        });
+        assertThat(campaign.getStatus()).isEqualTo(CampaignStatus.INCOMPLETE);
+    }
+
+    @Test
+    public void whenAnotherCampaignIsRunning_noCampaignIsLeftBehind() {
+        given(mailCampaignRepository.save(any(MailCampaign.class))).willAnswer(invocation -> {
+            MailCampaign saved = invocation.getArgument(0);
+            saved.setId(2L);
+            return saved;
+        });
+        given(jobService.submit(eq(JobType.MAIL_CAMPAIGN), any())).willThrow(new JobConflictException("busy"));
+
+        assertThatThrownBy(() -> campaignService.start(10, 1)).isInstanceOf(JobConflictException.class);
+
+        verify(mailCampaignRepository).delete(argThat(campaign -> campaign.getId() == 2L));
+    }
+
+    private static List<OutboxMail> pendingMails(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> OutboxMail.builder()
+                        .id((long) i)
+                        .campaignId(1L)
+                        .employeeId(i)
+                        .recipient("user" + i + "@example.com")
+                        .subject("Confirmation")
+                        .body("Confirm please")
+                        .status(MailStatus.PENDING)
+                        .nextAttemptAt(LocalDateTime.now())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private static class InlineTransactionTemplate extends TransactionTemplate {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            return action.doInTransaction(null);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.domain.MailStatus;
+import com.example.demowithtests.domain.OutboxMail;
+import com.example.demowithtests.repository.MailOutboxRepository;
+import com.example.demowithtests.util.mail.MailConnection;
+import com.example.demowithtests.util.mail.MailOutboxDispatcher;
+import com.example.demowithtests.util.mail.MailRetryPolicy;
+import com.example.demowithtests.util.mail.Mailer;
+import com.example.demowithtests.util.mail.SmtpMailer;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.mail.MessagingException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class MailOutboxDispatcherTests {
+
+    @Mock
+    private MailOutboxRepository mailOutboxRepository;
+
+    // in-process SMTP server standing in for Gmail
+    private GreenMail greenMail;
+
+    private MailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+        SmtpMailer mailer = new SmtpMailer(new SimpleMeterRegistry(), "localhost", greenMail.getSmtp().getPort(),
+                "noreply@example.com", "", false, false);
+        dispatcher = new MailOutboxDispatcher(mailOutboxRepository, mailer, new InlineTransactionTemplate(),
+                new MailRetryPolicy(3, Duration.ofSeconds(30)), 50);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        greenMail.stop();
+    }
+
+    @Test
+    public void pendingMailsAreSentOverOneConnection() {
+        List<OutboxMail> mails = pendingMails(3);
+        given(mailOutboxRepository.findDue(eq(MailStatus.PENDING), any(), any())).willReturn(mails);
+
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(3);
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(3);
+        assertThat(mails).allSatisfy(mail -> {
+            assertThat(mail.getStatus()).isEqualTo(MailStatus.SENT);
+            assertThat(mail.getSentAt()).isNotNull();
+        });
+    }
+
+    @Test
+    public void whenServerIsDown_mailsAreRescheduled() {
+        greenMail.stop();
+        List<OutboxMail> mails = pendingMails(2);
+        given(mailOutboxRepository.findDue(eq(MailStatus.PENDING), any(), any())).willReturn(mails);
+
+        dispatcher.dispatchBatch();
+
+        assertThat(mails).allSatisfy(mail -> {
+            assertThat(mail.getStatus()).isEqualTo(MailStatus.PENDING);
+            assertThat(mail.getAttempts()).isEqualTo(1);
+            assertThat(mail.getNextAttemptAt()).isAfter(LocalDateTime.now());
+        });
+    }
+
+    @Test
+    public void whenConnectionBreaks_restOfTheBatchIsSentOverANewOne() throws MessagingException {
+        Mailer mailer = mock(Mailer.class);
+        MailConnection broken = mock(MailConnection.class);
+        MailConnection fresh = mock(MailConnection.class);
+        given(mailer.connect()).willReturn(broken, fresh);
+        willThrow(new MessagingException("connection reset")).given(broken).send(any(), any(), any());
+        List<OutboxMail> mails = pendingMails(3);
+        given(mailOutboxRepository.findDue(eq(MailStatus.PENDING), any(), any())).willReturn(mails);
+        MailOutboxDispatcher dispatcher = new MailOutboxDispatcher(mailOutboxRepository, mailer,
+                new InlineTransactionTemplate(), new MailRetryPolicy(3, Duration.ofSeconds(30)), 50);
+
+        dispatcher.dispatchBatch();
+
+        assertThat(mails).extracting(OutboxMail::getStatus)
+                .containsExactly(MailStatus.PENDING, MailStatus.SENT, MailStatus.SENT);
+        verify(broken).close();
+        verify(fresh, times(2)).send(any(), any(), any());
+        verify(mailOutboxRepository).saveAll(mails);
+    }
+
+    private static List<OutboxMail> pendingMails(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> OutboxMail.builder()
+                        .id((long) i)
+                        .recipient("user" + i + "@example.com")
+                        .subject("Confirmation")
+                        .body("Confirm please")
+                        .status(MailStatus.PENDING)
+                        .nextAttemptAt(LocalDateTime.now())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private static class InlineTransactionTemplate extends TransactionTemplate {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            return action.doInTransaction(null);
+        }
+    }
+}
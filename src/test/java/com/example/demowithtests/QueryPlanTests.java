@@ -0,0 +1,196 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.domain.Gender;
+import com.example.demowithtests.dto.employee.EmployeeSummaryDto;
+import com.example.demowithtests.repository.EmployeeRepository;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every filtering repository query against PostgreSQL with the Flyway schema and checks with EXPLAIN
+ * that no table is read with a sequential scan. Sequential scans are disabled for the session, so a
+ * Seq Scan left in a plan means that none of the indexes can serve the query.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(SqlStatementCounter.Config.class)
+public class QueryPlanTests {
+    private static final int EMPLOYEES = 20_000;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.locations", () -> "classpath:db/migration");
+        // only the migrations define the schema and its indexes
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Test
+    public void repositoryQueriesDoNotScanTables() {
+        seed();
+        // findAll, streamAll and findAllCountries read the whole table by design,
+        // findByCountryContaining is an infix LIKE that no b-tree index can serve
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findById", () -> employeeRepository.findById(42));
+        queries.put("findVisibleVersionById", () -> employeeRepository.findVisibleVersionById(42));
+        queries.put("findByName", () -> employeeRepository.findByName("Name42"));
+        queries.put("findByName(page)", () -> employeeRepository.findByName("Name42", PageRequest.of(0, 5)));
+        queries.put("findCountriesStartingWith", () -> employeeRepository.findCountriesStartingWith("Ukr"));
+        queries.put("countByCountryStartingWith", () -> employeeRepository.countByCountryStartingWith("Ukr"));
+        queries.put("findByEmailDomain", () -> employeeRepository.findByEmailDomain("mail7.com",
+                PageRequest.of(0, 5, Sort.by(Sort.Direction.ASC, "id"))));
+        queries.put("countByEmailDomain", () -> employeeRepository.countByEmailDomain("mail7.com"));
+        queries.put("findFirstByEmailDomain", () -> employeeRepository.findFirstByEmailDomain("mail7.com"));
+        queries.put("findFirstByEmailDomainReversedStartingWith",
+                () -> employeeRepository.findFirstByEmailDomainReversedStartingWith("moc.7"));
+        queries.put("findByGenderAndAddressCountry", () -> employeeRepository.findByGenderAndAddressCountry(
+                Gender.M, "Poland", PageRequest.of(0, 5, Sort.by(Sort.Direction.ASC, "name"))));
+        queries.put("findAllWhereIsActiveAddressByCountry", () -> employeeRepository
+                .findAllWhereIsActiveAddressByCountry("Poland", PageRequest.of(0, 5, Sort.by(Sort.Direction.ASC, "name"))));
+        queries.put("findAllActive", () -> employeeRepository
+                .findAllActive(PageRequest.of(0, 5, Sort.by(Sort.Direction.ASC, "name"))));
+        queries.put("findAllDeleted", () -> employeeRepository
+                .findAllDeleted(PageRequest.of(0, 5, Sort.by(Sort.Direction.ASC, "name"))));
+        queries.put("seekAll", () -> employeeRepository.seekAll("Name1", 1, 5));
+        queries.put("seekActive", () -> employeeRepository.seekActive("Name1", 1, 5));
+        queries.put("seekDeleted", () -> employeeRepository.seekDeleted("Name1", 1, 5));
+        queries.put("seekWhereIsActiveAddressByCountry",
+                () -> employeeRepository.seekWhereIsActiveAddressByCountry("Poland", "Name1", 1, 5));
+        queries.put("queryEmployeeByIsDeletedIsNull", () -> employeeRepository.queryEmployeeByIsDeletedIsNull());
+        queries.put("queryEmployeeByIsPrivateIsNull", () -> employeeRepository.queryEmployeeByIsPrivateIsNull());
+        queries.put("queryEmployeeByIsConfirmedNull", () -> employeeRepository.queryEmployeeByIsConfirmedNull());
+        queries.put("findUnconfirmedAfter", () -> employeeRepository.findUnconfirmedAfter(0, PageRequest.of(0, 100)));
+        queries.put("findIdsDeletedBefore", () -> employeeRepository
+                .findIdsDeletedBefore(LocalDateTime.now().minusDays(30), PageRequest.of(0, 500)));
+        queries.put("findIdsAfter", () -> employeeRepository.findIdsAfter(0, PageRequest.of(0, 500)));
+        queries.put("updateNameByIdRange", () -> employeeRepository.updateNameByIdRange("Name", 100, 200));
+        queries.put("streamVisibleSummariesInRange", () -> {
+            try (Stream<EmployeeSummaryDto> employees = employeeRepository.streamVisibleSummariesInRange(100, 200)) {
+                employees.count();
+            }
+        });
+
+        List<String> scans = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            entityManager.clear();
+            sqlStatementCounter.reset();
+            query.run();
+            for (QueryInfo executed : sqlStatementCounter.queries()) {
+                String plan = explain(executed);
+                if (plan.contains("Seq Scan")) {
+                    scans.add(name + ": " + executed.getQuery() + "\n" + plan);
+                }
+            }
+        });
+
+        assertThat(scans).as("queries with a sequential scan").isEmpty();
+    }
+
+    private void seed() {
+        session().doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("insert into users (id, name, email, country, gender, is_deleted, is_private, " +
+                        "is_confirmed, email_domain, email_domain_reversed, deleted_at) " +
+                        "select g, 'Name' || g, 'user' || g || '@mail' || (g % 50) || '.com', " +
+                        "(array['Ukraine', 'Poland', 'Germany', 'France'])[g % 4 + 1], " +
+                        "case when g % 2 = 0 then 'M' else 'F' end, " +
+                        "case when g % 1000 = 1 then null else g % 10 = 0 end, " +
+                        "case when g % 1000 = 2 then null else g % 3 = 0 end, " +
+                        "case when g % 100 = 3 then null else true end, " +
+                        "'mail' || (g % 50) || '.com', reverse('mail' || (g % 50) || '.com'), " +
+                        "case when g % 10 = 0 then now() - interval '40 days' end " +
+                        "from generate_series(1, " + EMPLOYEES + ") g");
+                statement.execute("insert into addresses (id, address_has_active, city, country, street, employee_id) " +
+                        "select g, g % 5 <> 0, 'City' || (g % 100), " +
+                        "(array['Ukraine', 'Poland', 'Germany', 'France', 'Spain'])[g % 5 + 1], 'Street', g " +
+                        "from generate_series(1, " + EMPLOYEES + ") g");
+                statement.execute("analyze users");
+                statement.execute("analyze addresses");
+                // for the rest of the test transaction
+                statement.execute("set local enable_seqscan = off");
+            }
+        });
+    }
+
+    private String explain(QueryInfo query) {
+        return session().doReturningWork(connection -> explain(connection, query));
+    }
+
+    private static String explain(Connection connection, QueryInfo query) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("explain " + query.getQuery())) {
+            if (!query.getParametersList().isEmpty()) {
+                query.getParametersList().get(0).stream()
+                        .sorted(Comparator.comparingInt(operation -> (Integer) operation.getArgs()[0]))
+                        .forEach(operation -> bind(statement, operation));
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.append("  ").append(rows.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    private static void bind(PreparedStatement statement, ParameterSetOperation operation) {
+        try {
+            Object[] args = operation.getArgs();
+            if (ParameterSetOperation.isSetNullParameterOperation(operation)) {
+                statement.setNull((Integer) args[0], (Integer) args[1]);
+            } else {
+                statement.setObject((Integer) args[0], args[1]);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Session session() {
+        return entityManager.unwrap(Session.class);
+    }
+}
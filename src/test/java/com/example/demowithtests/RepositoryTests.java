@@ -1,6 +1,10 @@
 package com.example.demowithtests;
 
+import com.example.demowithtests.domain.Address;
 import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.domain.Gender;
+import com.example.demowithtests.dto.country.CountryCountDto;
+import com.example.demowithtests.dto.employee.EmployeeSummaryDto;
 import com.example.demowithtests.repository.EmployeeRepository;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.MethodOrderer;
@@ -9,12 +13,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @DataJpaTest
+@ActiveProfiles("test")
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class RepositoryTests {
 
@@ -83,4 +95,121 @@ public class RepositoryTests {
         Assertions.assertThat(employee1).isNull();
     }
 
+    @Test
+    @Order(6)
+    public void updateNameByIdRangeTest() {
+        List<Employee> employees = employeeRepository.saveAll(List.of(
+                Employee.builder().name("Ann").build(),
+                Employee.builder().name("Bob").build(),
+                Employee.builder().name("Eve").build()));
+
+        List<Integer> firstChunk = employeeRepository.findIdsAfter(0, PageRequest.of(0, 2));
+
+        Assertions.assertThat(firstChunk).containsExactly(employees.get(0).getId(), employees.get(1).getId());
+        Assertions.assertThat(employeeRepository.updateNameByIdRange("Updated", 0, firstChunk.get(1))).isEqualTo(2);
+    }
+
+    @Test
+    @Order(7)
+    public void streamAllTest() {
+        employeeRepository.save(Employee.builder().name("Streamed").build());
+
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            Assertions.assertThat(employees.map(Employee::getName)).contains("Streamed");
+        }
+    }
+
+    @Test
+    @Order(8)
+    public void seekAllTest() {
+        employeeRepository.deleteAll();
+        Employee ann = employeeRepository.save(Employee.builder().name("Ann").build());
+        Employee bob = employeeRepository.save(Employee.builder().name("Bob").build());
+        Employee eve = employeeRepository.save(Employee.builder().name("Eve").build());
+
+        List<Employee> firstPage = employeeRepository.seekAll("", 0, 2);
+        List<Employee> secondPage = employeeRepository.seekAll(bob.getName(), bob.getId(), 2);
+
+        Assertions.assertThat(firstPage).extracting(Employee::getId).containsExactly(ann.getId(), bob.getId());
+        Assertions.assertThat(secondPage).extracting(Employee::getId).containsExactly(eve.getId());
+    }
+
+    @Test
+    @Order(9)
+    public void countriesStartingWithTest() {
+        employeeRepository.deleteAll();
+        employeeRepository.saveAll(List.of(
+                Employee.builder().name("Ann").country("USA").build(),
+                Employee.builder().name("Bob").country("Ukraine").build(),
+                Employee.builder().name("Eve").country("Ukraine").build(),
+                Employee.builder().name("Max").country("France").build()));
+
+        Assertions.assertThat(employeeRepository.findCountriesStartingWith("U"))
+                .containsExactly("USA", "Ukraine", "Ukraine");
+        Assertions.assertThat(employeeRepository.countByCountryStartingWith("U"))
+                .containsExactly(new CountryCountDto("USA", 1), new CountryCountDto("Ukraine", 2));
+    }
+
+    @Test
+    @Order(10)
+    public void emailDomainTest() {
+        employeeRepository.deleteAll();
+        employeeRepository.saveAll(List.of(
+                Employee.builder().name("Ann").email("ann@Mail.org").build(),
+                Employee.builder().name("Bob").email("bob@gmail.com").build()));
+
+        Assertions.assertThat(employeeRepository.countByEmailDomain("mail.org")).isEqualTo(1);
+        Assertions.assertThat(employeeRepository.findFirstByEmailDomainReversedStartingWith("moc."))
+                .map(Employee::getEmail).contains("bob@gmail.com");
+    }
+
+    @Test
+    @Order(11)
+    public void genderAndAddressCountryTest() {
+        employeeRepository.deleteAll();
+        employeeRepository.saveAll(List.of(
+                Employee.builder().name("Ann").gender(Gender.F)
+                        .addresses(Set.of(address("Ukraine", "Kyiv"), address("Ukraine", "Lviv"), address("Poland", "Krakow")))
+                        .build(),
+                Employee.builder().name("Bob").gender(Gender.M).addresses(Set.of(address("Ukraine", "Kyiv"))).build(),
+                Employee.builder().name("Eve").gender(Gender.F).addresses(Set.of(address("Poland", "Warsaw"))).build()));
+
+        Page<EmployeeSummaryDto> page = employeeRepository.findByGenderAndAddressCountry(Gender.F, "Ukraine",
+                PageRequest.of(0, 5, Sort.by(Sort.Direction.ASC, "name")));
+
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(1);
+        Assertions.assertThat(page.getContent()).extracting(EmployeeSummaryDto::getName).containsExactly("Ann");
+    }
+
+    @Test
+    @Order(12)
+    public void unconfirmedAfterTest() {
+        employeeRepository.deleteAll();
+        List<Employee> employees = employeeRepository.saveAll(List.of(
+                Employee.builder().name("Ann").email("ann@mail.org").build(),
+                Employee.builder().name("Bob").email("bob@mail.org").isConfirmed(false).build(),
+                Employee.builder().name("Eve").email("eve@mail.org").isConfirmed(true).build(),
+                Employee.builder().name("Max").email("max@mail.org").isConfirmed(false).isDeleted(true).build(),
+                Employee.builder().name("Kim").isConfirmed(false).build()));
+
+        Assertions.assertThat(employeeRepository.findUnconfirmedAfter(0, PageRequest.of(0, 10)))
+                .extracting(Employee::getName).containsExactly("Ann", "Bob");
+        Assertions.assertThat(employeeRepository.findUnconfirmedAfter(employees.get(0).getId(), PageRequest.of(0, 10)))
+                .extracting(Employee::getName).containsExactly("Bob");
+    }
+
+    @Test
+    @Order(13)
+    public void nameIsRequiredTest() {
+        Assertions.assertThatThrownBy(() -> employeeRepository.saveAndFlush(Employee.builder().email("x@mail.org").build()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static Address address(String country, String city) {
+        Address address = new Address();
+        address.setCountry(country);
+        address.setCity(city);
+        return address;
+    }
+
 }
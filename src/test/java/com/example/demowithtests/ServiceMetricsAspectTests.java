@@ -0,0 +1,51 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.service.EmployeeService;
+import com.example.demowithtests.util.exception.ResourceNotFoundException;
+import com.example.demowithtests.util.metrics.ServiceMetricsAspect;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class ServiceMetricsAspectTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeService proxy;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(employeeService);
+        factory.addInterface(EmployeeService.class);
+        factory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    public void everyCallIsTimedAndExceptionsAreCounted() {
+        given(employeeService.getById(2)).willThrow(new ResourceNotFoundException());
+
+        proxy.getAll();
+        assertThatThrownBy(() -> proxy.getById(2)).isInstanceOf(ResourceNotFoundException.class);
+
+        assertThat(meterRegistry.get("employee.service").tags("method", "getAll", "exception", "none")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("employee.service").tags("method", "getById", "exception", "ResourceNotFoundException")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("employee.service.exceptions").tags("method", "getById")
+                .counter().count()).isEqualTo(1);
+    }
+}
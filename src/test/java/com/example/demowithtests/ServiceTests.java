@@ -5,6 +5,7 @@ import com.example.demowithtests.dto.employee.EmployeeCreateDto;
 import com.example.demowithtests.dto.employee.EmployeeReadDto;
 import com.example.demowithtests.repository.EmployeeRepository;
 import com.example.demowithtests.service.EmployeeServiceBean;
+import com.example.demowithtests.service.cache.EmployeeReadCache;
 import com.example.demowithtests.util.config.EmployeeMapper;
 import com.example.demowithtests.util.exception.NoSuchEmployeeException;
 import org.junit.Assert;
@@ -22,7 +23,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -31,6 +34,9 @@ public class ServiceTests {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private EmployeeReadCache employeeReadCache;
+
 //    @Mock
 //    private EmployeeMapper mapper;
 
@@ -72,6 +78,29 @@ public class ServiceTests {
         service.getById(employee.getId());
     }
 
+    @Test
+    public void whenEmployeeIsCached_shouldNotQueryRepository() {
+        EmployeeReadDto cached = new EmployeeReadDto();
+        cached.setId(90);
+        given(employeeReadCache.get(90)).willReturn(cached);
+
+        assertThat(service.getById(90)).isSameAs(cached);
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    public void whenEmployeeIsLoaded_shouldBeCachedWithoutWrites() {
+        Employee employee = Employee.builder().id(91).name("Mark")
+                .isDeleted(null).isPrivate(Boolean.FALSE).isConfirmed(Boolean.TRUE).build();
+        given(employeeRepository.findById(91)).willReturn(Optional.of(employee));
+        given(employeeReadCache.invalidations()).willReturn(4L);
+
+        EmployeeReadDto loaded = service.getById(91);
+
+        verify(employeeReadCache).put(91, loaded, 4L);
+        verify(employeeRepository, never()).save(ArgumentMatchers.any(Employee.class));
+    }
+
     @Test
     public void name() {
     }
@@ -0,0 +1,74 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.util.concurrent.SingleFlight;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTests {
+
+    @Test
+    public void callsDuringARunShareTheNextRun() throws Exception {
+        SingleFlight<Integer> flight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch firstRunStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstRun = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            Future<Integer> first = callers.submit(() -> flight.execute(() -> {
+                firstRunStarted.countDown();
+                await(releaseFirstRun);
+                return runs.incrementAndGet();
+            }));
+            assertThat(firstRunStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            List<Future<Integer>> later = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                later.add(callers.submit(() -> flight.execute(runs::incrementAndGet)));
+            }
+            // one of them runs next, the others join it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (flight.getCoalesced() < 4 && System.nanoTime() < deadline) Thread.sleep(10);
+            releaseFirstRun.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            for (Future<Integer> call : later) {
+                assertThat(call.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+            }
+            assertThat(flight.getExecutions()).isEqualTo(2);
+            assertThat(flight.getCoalesced()).isEqualTo(4);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedRunDoesNotBlockTheNextOne() {
+        SingleFlight<Integer> flight = new SingleFlight<>();
+
+        assertThatThrownBy(() -> flight.execute(() -> {
+            throw new IllegalStateException("failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(flight.execute(() -> 42)).isEqualTo(42);
+        assertThat(flight.getExecutions()).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demowithtests;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Records every SQL statement sent through the test DataSource, so a test can put a budget on an operation.
+ * Import {@link Config} into the test context and autowire the counter. A budget that is exceeded fails
+ * the test with the executed SQL listed.
+ */
+public class SqlStatementCounter implements QueryExecutionListener {
+    private final List<QueryInfo> queries = new ArrayList<>();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public synchronized void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        queries.addAll(queryInfoList);
+    }
+
+    public synchronized void reset() {
+        queries.clear();
+    }
+
+    public synchronized List<String> statements() {
+        return queries.stream().map(QueryInfo::getQuery).collect(Collectors.toList());
+    }
+
+    /**
+     * Executed statements with their bind parameters.
+     */
+    public synchronized List<QueryInfo> queries() {
+        return new ArrayList<>(queries);
+    }
+
+    public List<String> selects() {
+        return statements().stream()
+                .filter(sql -> sql.trim().toLowerCase(Locale.ROOT).startsWith("select"))
+                .collect(Collectors.toList());
+    }
+
+    public void assertSelects(int budget) {
+        assertBudget("selects", selects(), budget);
+    }
+
+    public void assertStatements(int budget) {
+        assertBudget("statements", statements(), budget);
+    }
+
+    private static void assertBudget(String kind, List<String> executed, int budget) {
+        if (executed.size() > budget) {
+            fail("Expected at most " + budget + " " + kind + " but " + executed.size() + " were executed:\n  "
+                    + String.join("\n  ", executed));
+        }
+    }
+
+    @TestConfiguration
+    public static class Config {
+
+        @Bean
+        public SqlStatementCounter sqlStatementCounter() {
+            return new SqlStatementCounter();
+        }
+
+        @Bean
+        public static BeanPostProcessor statementCountingDataSource(
+                ObjectProvider<SqlStatementCounter> counter) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource)) return bean;
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name(beanName)
+                            .listener(counter.getObject())
+                            .build();
+                }
+            };
+        }
+    }
+}
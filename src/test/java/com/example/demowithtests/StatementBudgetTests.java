@@ -0,0 +1,184 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.domain.Address;
+import com.example.demowithtests.domain.Employee;
+import com.example.demowithtests.dto.employee.EmployeeCreateDto;
+import com.example.demowithtests.dto.employee.EmployeePatchDto;
+import com.example.demowithtests.dto.employee.EmployeeReadDto;
+import com.example.demowithtests.repository.EmployeeRepository;
+import com.example.demowithtests.service.EmployeeService;
+import com.example.demowithtests.service.EmployeeServiceBean;
+import com.example.demowithtests.service.cache.EmployeeReadCache;
+import com.example.demowithtests.service.job.BulkWriteGuard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({SqlStatementCounter.Config.class, EmployeeServiceBean.class, BulkWriteGuard.class, EmployeeReadCache.class})
+public class StatementBudgetTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    private Integer firstId;
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < 60; i++) {
+            Address address = new Address();
+            address.setCountry("Ukraine");
+            Employee employee = employeeRepository.save(Employee.builder()
+                    .name("Name" + i)
+                    .email("name" + i + "@mail.com")
+                    .addresses(Set.of(address))
+                    .isDeleted(Boolean.FALSE)
+                    .isPrivate(Boolean.FALSE)
+                    .isConfirmed(Boolean.TRUE)
+                    .build());
+            if (firstId == null) firstId = employee.getId();
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        sqlStatementCounter.reset();
+    }
+
+    @Test
+    public void getByIdIsOneSelect() {
+        EmployeeReadDto dto = employeeService.getById(firstId);
+
+        assertThat(dto.getAddresses()).hasSize(1);
+        sqlStatementCounter.assertStatements(1);
+    }
+
+    @Test
+    public void clearingBeforeGenerateIsTwoDeletes() {
+        employeeService.generateEntity(0, true);
+
+        sqlStatementCounter.assertStatements(2);
+        assertThat(employeeRepository.count()).isZero();
+    }
+
+    @Test
+    public void cachedGetByIdDoesNotTouchTheDatabase() {
+        employeeService.getById(firstId);
+        sqlStatementCounter.reset();
+
+        employeeService.getById(firstId);
+
+        sqlStatementCounter.assertStatements(0);
+    }
+
+    @Test
+    public void revalidationReadsOnlyTheVersion() {
+        Optional<Long> version = employeeService.getVersionById(firstId);
+
+        assertThat(version).contains(0L);
+        sqlStatementCounter.assertSelects(1);
+        sqlStatementCounter.assertStatements(1);
+    }
+
+    @Test
+    public void cachedRevalidationDoesNotTouchTheDatabase() {
+        employeeService.getById(firstId);
+        sqlStatementCounter.reset();
+
+        employeeService.getVersionById(firstId);
+
+        sqlStatementCounter.assertStatements(0);
+    }
+
+    @Test
+    public void pageOf50IsFixedNumberOfSelects() {
+        Page<EmployeeReadDto> page = employeeService.getAllWithPagination(PageRequest.of(0, 50));
+
+        assertThat(page.getContent()).allSatisfy(dto -> assertThat(dto.getAddresses()).hasSize(1));
+        // page + count + one batch of addresses
+        sqlStatementCounter.assertSelects(3);
+        sqlStatementCounter.assertStatements(3);
+    }
+
+    @Test
+    public void createAllInsertsInJdbcBatches() {
+        List<EmployeeCreateDto> createDtos = IntStream.range(0, 120).mapToObj(i -> {
+            EmployeeCreateDto createDto = new EmployeeCreateDto();
+            createDto.setName("Batch" + i);
+            createDto.setEmail("batch" + i + "@mail.com");
+            return createDto;
+        }).collect(Collectors.toList());
+
+        assertThat(employeeService.createAll(createDtos)).hasSize(120).doesNotContainNull();
+
+        // at most 3 sequence calls and 3 batched inserts of 50, 50 and 20 rows
+        sqlStatementCounter.assertStatements(6);
+    }
+
+    @Test
+    public void patchWithUnchangedValuesWritesNothing() {
+        EmployeePatchDto patch = new EmployeePatchDto();
+        patch.setName("Name0");
+
+        employeeService.patchById(firstId, patch);
+
+        sqlStatementCounter.assertStatements(1);
+    }
+
+    @Test
+    public void patchUpdatesOnlyChangedColumns() {
+        EmployeePatchDto patch = new EmployeePatchDto();
+        patch.setEmail("name0@example.org");
+
+        employeeService.patchById(firstId, patch);
+
+        List<String> updates = updates();
+        assertThat(updates).hasSize(1);
+        assertThat(updates.get(0)).contains("email=?", "email_domain=?", "email_domain_reversed=?")
+                .doesNotContain("name=?", "country=?");
+    }
+
+    @Test
+    public void patchAllIsOneUpdateAndOneReadBack() {
+        List<Integer> ids = IntStream.range(firstId, firstId + 10).boxed().collect(Collectors.toList());
+        EmployeePatchDto patch = new EmployeePatchDto();
+        patch.setCountry("Poland");
+
+        // the changed rows are read back once for the change listeners
+        assertThat(employeeService.patchAll(ids, patch)).isEqualTo(10);
+        sqlStatementCounter.assertStatements(2);
+        assertThat(updates()).hasSize(1);
+
+        // nothing left to change the second time, so nothing is read back either
+        assertThat(employeeService.patchAll(ids, patch)).isEqualTo(0);
+        sqlStatementCounter.assertStatements(3);
+    }
+
+    private List<String> updates() {
+        return sqlStatementCounter.statements().stream()
+                .filter(sql -> sql.startsWith("update"))
+                .collect(Collectors.toList());
+    }
+}
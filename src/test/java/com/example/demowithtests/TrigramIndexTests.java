@@ -0,0 +1,77 @@
+package com.example.demowithtests;
+
+import com.example.demowithtests.util.search.TrigramIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TrigramIndexTests {
+    private static final int NAME = 1;
+    private static final int ALL = 3;
+
+    private final TrigramIndex index = new TrigramIndex(2, 1);
+
+    @Test
+    public void findsSubstringsIgnoringCase() {
+        index.put(1, "Anna", "anna@mail.com");
+        index.put(2, "Joanna", "jo@gmail.com");
+        index.put(3, "Bob", "bob@mail.com");
+
+        assertThat(ids("ANN", ALL)).containsExactly(1, 2);
+        assertThat(ids("mail.c", ALL)).containsExactly(1, 2, 3);
+        assertThat(ids("xyz", ALL)).isEmpty();
+    }
+
+    @Test
+    public void ordersByRelevance() {
+        index.put(1, "Joanna", "x@mail.com");
+        index.put(2, "Anna", "x@mail.com");
+        index.put(3, "Annabel", "x@mail.com");
+        index.put(4, "Bob", "anna@mail.com");
+
+        // exact name, name prefix, name infix, email prefix
+        assertThat(ids("anna", ALL)).containsExactly(2, 3, 1, 4);
+        assertThat(ids("anna", NAME)).containsExactly(2, 3, 1);
+    }
+
+    @Test
+    public void shortQueriesFindNothing() {
+        index.put(1, "Al", null);
+        index.put(2, "Bob", null);
+
+        assertThat(ids("l", ALL)).isEmpty();
+        assertThat(ids("", ALL)).isEmpty();
+    }
+
+    @Test
+    public void keepsOnlyTheBestHitsAndCountsAll() {
+        for (int id = 1; id <= 100; id++) {
+            index.put(id, id % 10 == 0 ? "Anna" : "Joanna", null);
+        }
+
+        TrigramIndex.Hits hits = index.search("anna", ALL, 12);
+
+        assertThat(hits.getTotal()).isEqualTo(100);
+        assertThat(hits.getTop()).extracting(TrigramIndex.Hit::getId)
+                .containsExactly(10, 20, 30, 40, 50, 60, 70, 80, 90, 100, 1, 2);
+    }
+
+    @Test
+    public void updateAndRemoveReplaceTheOldTrigrams() {
+        index.put(1, "Anna", null);
+        index.put(1, "Maria", null);
+        index.put(2, "Marianne", null);
+        index.remove(2);
+
+        assertThat(ids("anna", ALL)).isEmpty();
+        assertThat(ids("mari", ALL)).containsExactly(1);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    private List<Integer> ids(String query, int fieldMask) {
+        return index.search(query, fieldMask, Integer.MAX_VALUE).getTop().stream().map(TrigramIndex.Hit::getId).collect(Collectors.toList());
+    }
+}